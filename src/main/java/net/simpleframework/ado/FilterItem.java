@@ -129,6 +129,20 @@ public class FilterItem implements Serializable {
 		return true;
 	}
 
+	/**
+	 * 编译为可复用的判断条件。条件值的转换只做一次，并按属性类型(基本类型、日期、枚举)特化；
+	 * orItem链中与本项同列的部分一并编译
+	 * 
+	 * 结果与!isDelete(v, propertyType)一致；另外支持isNull、isNotNull，以及枚举(按序号)和其它
+	 * Comparable类型的大小比较，这些在isDelete中均视为不满足
+	 * 
+	 * @param propertyType
+	 * @return
+	 */
+	public IFilterPredicate compile(final Class<?> propertyType) {
+		return FilterPredicates.compile(this, propertyType);
+	}
+
 	public static FilterItem TRUE = new FilterItem("1", 1);
 	public static FilterItem FALSE = new FilterItem("1", 2);
 
@@ -0,0 +1,379 @@
+package net.simpleframework.ado;
+
+import java.util.Date;
+
+import net.simpleframework.common.Convert;
+import net.simpleframework.common.object.ObjectUtils;
+import net.simpleframework.lib.org.mvel2.util.ParseTools;
+
+/**
+ * FilterItem编译后的判断条件
+ *
+ * 按属性类型特化，条件值在编译时完成转换，判断时不再分配对象。结果与FilterItem.isDelete取反一致，
+ * 以下为扩展(isDelete中均视为不满足)：isNull、isNotNull，枚举按序号及其它Comparable类型的大小比较
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public abstract class FilterPredicates {
+
+	public static final IFilterPredicate TRUE = new IFilterPredicate() {
+		@Override
+		public boolean accept(final Object v) {
+			return true;
+		}
+	};
+
+	public static final IFilterPredicate FALSE = new IFilterPredicate() {
+		@Override
+		public boolean accept(final Object v) {
+			return false;
+		}
+	};
+
+	/**
+	 * 编译item及其orItem链中与item同列的部分
+	 *
+	 * @param item
+	 * @param propertyType
+	 * @return
+	 */
+	public static IFilterPredicate compile(final FilterItem item, final Class<?> propertyType) {
+		IFilterPredicate predicate = compileItem(item, propertyType);
+		FilterItem orItem = item.getOrItem();
+		while (orItem != null && isSameColumn(item, orItem)) {
+			predicate = new OrPredicate(predicate, compileItem(orItem, propertyType));
+			orItem = orItem.getOrItem();
+		}
+		return predicate;
+	}
+
+	static boolean isSameColumn(final FilterItem item, final FilterItem orItem) {
+		return item.getColumn() == null ? orItem.getColumn() == null : item.getColumn().equals(
+				orItem.getColumn());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static IFilterPredicate compileItem(final FilterItem item, Class<?> propertyType) {
+		if (item == FilterItem.TRUE) {
+			return TRUE;
+		} else if (item == FilterItem.FALSE) {
+			return FALSE;
+		}
+
+		final EFilterRelation r = item.getRelation();
+		if (r == EFilterRelation.isNull) {
+			return new NullPredicate(true);
+		} else if (r == EFilterRelation.isNotNull) {
+			return new NullPredicate(false);
+		}
+
+		propertyType = propertyType == null ? Object.class : ParseTools.boxPrimitive(propertyType);
+		final Object value = item.getValue();
+		if (r == EFilterRelation.like) {
+			if (Enum.class.isAssignableFrom(propertyType)) {
+				// 与isDelete一致，两边均先转换为枚举
+				final Enum e2 = Convert.toEnum((Class<Enum>) propertyType, value);
+				return e2 == null ? FALSE : new EnumLikePredicate(propertyType, Convert.toString(e2));
+			}
+			return value == null ? FALSE : new LikePredicate(Convert.toString(value));
+		}
+
+		if (r == EFilterRelation.equal || r == EFilterRelation.not_equal) {
+			// 与isDelete一致，仅枚举做转换，其它类型按equals比较
+			return Enum.class.isAssignableFrom(propertyType) ? new EnumEqualPredicate(propertyType,
+					Convert.toEnum((Class<Enum>) propertyType, value), r == EFilterRelation.not_equal)
+					: new EqualPredicate(value, r == EFilterRelation.not_equal);
+		}
+
+		if (Enum.class.isAssignableFrom(propertyType)) {
+			final Enum e2 = Convert.toEnum((Class<Enum>) propertyType, value);
+			return e2 == null ? FALSE : new EnumPredicate(propertyType, r, e2.ordinal());
+		} else if (Number.class.isAssignableFrom(propertyType)) {
+			// 与isDelete一致，null按Double.MIN_VALUE比较
+			if (isIntegral(propertyType)) {
+				if (isIntegral(value)) {
+					return new LongPredicate(r, ((Number) value).longValue());
+				}
+				final double d2 = Convert.toDouble(value, Double.MIN_VALUE);
+				if (d2 == Math.rint(d2) && Math.abs(d2) <= MAX_EXACT_LONG) {
+					return new LongPredicate(r, (long) d2);
+				}
+				// 条件值不是整数(如5.5)时按double比较，不能截断
+				return new DoublePredicate(r, d2);
+			}
+			return new DoublePredicate(r, Convert.toDouble(value, Double.MIN_VALUE));
+		} else if (Date.class.isAssignableFrom(propertyType)) {
+			final Date d2 = value instanceof Date ? (Date) value : Convert.convert(value, Date.class);
+			return d2 == null ? FALSE : new DatePredicate(r, d2.getTime());
+		} else if (value instanceof Comparable) {
+			return new ComparablePredicate(r, (Comparable) value);
+		}
+		return FALSE;
+	}
+
+	/**
+	 * double能精确表示的最大整数
+	 */
+	private static final double MAX_EXACT_LONG = 9007199254740992d;
+
+	private static boolean isIntegral(final Class<?> type) {
+		return type == Integer.class || type == Long.class || type == Short.class
+				|| type == Byte.class;
+	}
+
+	private static boolean isIntegral(final Object v) {
+		return v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte;
+	}
+
+	static double toDouble(final Object v) {
+		return v instanceof Number ? ((Number) v).doubleValue() : Convert.toDouble(v,
+				Double.MIN_VALUE);
+	}
+
+	/**
+	 * double的比较结果是否满足关系r，NaN不满足任何关系
+	 */
+	static boolean test(final EFilterRelation r, final double d, final double d2) {
+		switch (r) {
+		case gt:
+			return d > d2;
+		case gt_equal:
+			return d >= d2;
+		case lt:
+			return d < d2;
+		case lt_equal:
+			return d <= d2;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * 比较结果c是否满足关系r
+	 */
+	static boolean test(final EFilterRelation r, final int c) {
+		switch (r) {
+		case equal:
+			return c == 0;
+		case not_equal:
+			return c != 0;
+		case gt:
+			return c > 0;
+		case gt_equal:
+			return c >= 0;
+		case lt:
+			return c < 0;
+		case lt_equal:
+			return c <= 0;
+		default:
+			return false;
+		}
+	}
+
+	static class OrPredicate implements IFilterPredicate {
+		private final IFilterPredicate p1, p2;
+
+		OrPredicate(final IFilterPredicate p1, final IFilterPredicate p2) {
+			this.p1 = p1;
+			this.p2 = p2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			return p1.accept(v) || p2.accept(v);
+		}
+	}
+
+	static class NullPredicate implements IFilterPredicate {
+		private final boolean isNull;
+
+		NullPredicate(final boolean isNull) {
+			this.isNull = isNull;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			return (v == null) == isNull;
+		}
+	}
+
+	static class LikePredicate implements IFilterPredicate {
+		private final String s2;
+
+		LikePredicate(final String s2) {
+			this.s2 = s2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			if (v == null || s2 == null) {
+				return false;
+			}
+			return (v instanceof String ? (String) v : Convert.toString(v)).contains(s2);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static class EnumLikePredicate extends LikePredicate {
+		private final Class<?> propertyType;
+
+		EnumLikePredicate(final Class<?> propertyType, final String s2) {
+			super(s2);
+			this.propertyType = propertyType;
+		}
+
+		@Override
+		public boolean accept(Object v) {
+			if (v != null && !propertyType.isInstance(v)) {
+				v = Convert.toEnum((Class<Enum>) propertyType, v);
+			}
+			return super.accept(v);
+		}
+	}
+
+	static class EqualPredicate implements IFilterPredicate {
+		private final Object v2;
+
+		private final boolean not;
+
+		EqualPredicate(final Object v2, final boolean not) {
+			this.v2 = v2;
+			this.not = not;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			return ObjectUtils.objectEquals(v, v2) != not;
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static class EnumEqualPredicate implements IFilterPredicate {
+		private final Class<?> propertyType;
+
+		private final Object e2;
+
+		private final boolean not;
+
+		EnumEqualPredicate(final Class<?> propertyType, final Object e2, final boolean not) {
+			this.propertyType = propertyType;
+			this.e2 = e2;
+			this.not = not;
+		}
+
+		@Override
+		public boolean accept(Object v) {
+			if (v != null && !propertyType.isInstance(v)) {
+				v = Convert.toEnum((Class<Enum>) propertyType, v);
+			}
+			return ObjectUtils.objectEquals(v, e2) != not;
+		}
+	}
+
+	static class LongPredicate implements IFilterPredicate {
+		private final EFilterRelation r;
+
+		private final long l2;
+
+		LongPredicate(final EFilterRelation r, final long l2) {
+			this.r = r;
+			this.l2 = l2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			if (isIntegral(v)) {
+				final long l = ((Number) v).longValue();
+				return test(r, l < l2 ? -1 : (l == l2 ? 0 : 1));
+			}
+			return test(r, toDouble(v), l2);
+		}
+	}
+
+	static class DoublePredicate implements IFilterPredicate {
+		private final EFilterRelation r;
+
+		private final double d2;
+
+		DoublePredicate(final EFilterRelation r, final double d2) {
+			this.r = r;
+			this.d2 = d2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			return test(r, toDouble(v), d2);
+		}
+	}
+
+	static class DatePredicate implements IFilterPredicate {
+		private final EFilterRelation r;
+
+		private final long t2;
+
+		DatePredicate(final EFilterRelation r, final long t2) {
+			this.r = r;
+			this.t2 = t2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			if (!(v instanceof Date)) {
+				return false;
+			}
+			final long t = ((Date) v).getTime();
+			return test(r, t < t2 ? -1 : (t == t2 ? 0 : 1));
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static class EnumPredicate implements IFilterPredicate {
+		private final Class<?> propertyType;
+
+		private final EFilterRelation r;
+
+		private final int o2;
+
+		EnumPredicate(final Class<?> propertyType, final EFilterRelation r, final int o2) {
+			this.propertyType = propertyType;
+			this.r = r;
+			this.o2 = o2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			if (v == null) {
+				return false;
+			}
+			final Enum e = v instanceof Enum ? (Enum) v : Convert.toEnum((Class<Enum>) propertyType, v);
+			if (e == null) {
+				return false;
+			}
+			final int o = e.ordinal();
+			return test(r, o < o2 ? -1 : (o == o2 ? 0 : 1));
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static class ComparablePredicate implements IFilterPredicate {
+		private final EFilterRelation r;
+
+		private final Comparable c2;
+
+		ComparablePredicate(final EFilterRelation r, final Comparable c2) {
+			this.r = r;
+			this.c2 = c2;
+		}
+
+		@Override
+		public boolean accept(final Object v) {
+			if (v == null || !c2.getClass().isInstance(v)) {
+				return false;
+			}
+			return test(r, ((Comparable) v).compareTo(c2));
+		}
+	}
+}
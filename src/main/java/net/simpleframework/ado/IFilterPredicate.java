@@ -0,0 +1,20 @@
+package net.simpleframework.ado;
+
+/**
+ * 由FilterItem编译得到的判断条件，可在多行数据间复用
+ * 
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public interface IFilterPredicate {
+
+	/**
+	 * 属性值v是否满足条件
+	 * 
+	 * @param v
+	 * @return
+	 */
+	boolean accept(Object v);
+}
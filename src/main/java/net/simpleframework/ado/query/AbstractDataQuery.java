@@ -1,7 +1,15 @@
 package net.simpleframework.ado.query;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import net.simpleframework.common.object.ObjectEx;
 
@@ -46,6 +54,127 @@ public abstract class AbstractDataQuery<T> extends ObjectEx implements IDataQuer
 	public void close() {
 	}
 
+	/**
+	 * 未设置fetchSize时，每批的默认数量
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	protected int getBatchSize() {
+		final int fetchSize = getFetchSize();
+		return fetchSize > 0 ? fetchSize : DEFAULT_BATCH_SIZE;
+	}
+
+	@Override
+	public int nextBatch(final T[] buf) {
+		int j = 0;
+		T t;
+		while (j < buf.length && (t = next()) != null) {
+			buf[j++] = t;
+		}
+		return j;
+	}
+
+	/**
+	 * 清空beans，并填充最多size个对象。子类可覆盖此方法以直接从数据源批量读取
+	 * 
+	 * @param beans
+	 * @param size
+	 * @return 实际填充的数量
+	 */
+	protected int fetchBatch(final List<T> beans, final int size) {
+		beans.clear();
+		T t;
+		while (beans.size() < size && (t = next()) != null) {
+			beans.add(t);
+		}
+		return beans.size();
+	}
+
+	@Override
+	public void forEachBatch(final IDataBatchHandler<T> handler) {
+		forEachBatch(handler, false);
+	}
+
+	@Override
+	public void forEachBatch(final IDataBatchHandler<T> handler, final boolean prefetch) {
+		final int size = getBatchSize();
+		List<T> current = new ArrayList<T>(size);
+		List<T> spare = new ArrayList<T>(size);
+		fetchBatch(current, size);
+		while (current.size() > 0) {
+			Future<Integer> future = null;
+			if (prefetch && current.size() == size) {
+				final List<T> beans = spare;
+				future = getPrefetchExecutor().submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						return fetchBatch(beans, size);
+					}
+				});
+			}
+			try {
+				handler.batch(this, current);
+			} catch (final RuntimeException e) {
+				if (future != null) {
+					// 等待预取结束，避免与调用方并发访问游标
+					waitQuietly(future);
+				}
+				throw e;
+			}
+			if (future != null) {
+				try {
+					future.get();
+				} catch (final InterruptedException e) {
+					waitQuietly(future);
+					Thread.currentThread().interrupt();
+					throw DataQueryException.of(e);
+				} catch (final ExecutionException e) {
+					throw DataQueryException.of(e.getCause());
+				}
+			} else if (current.size() < size) {
+				break;
+			} else {
+				fetchBatch(spare, size);
+			}
+			final List<T> tmp = current;
+			current = spare;
+			spare = tmp;
+		}
+	}
+
+	private static void waitQuietly(final Future<?> future) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				future.get();
+				break;
+			} catch (final InterruptedException e) {
+				interrupted = true;
+			} catch (final ExecutionException e) {
+				break;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static ExecutorService prefetchExecutor;
+
+	private static synchronized ExecutorService getPrefetchExecutor() {
+		if (prefetchExecutor == null) {
+			prefetchExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread t = new Thread(r, "DataQuery-prefetch");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return prefetchExecutor;
+	}
+
 	/**
 	 * 监听器
 	 */
@@ -0,0 +1,25 @@
+package net.simpleframework.ado.query;
+
+import net.simpleframework.common.th.RuntimeExceptionEx;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class DataQueryException extends RuntimeExceptionEx {
+	public DataQueryException(final String msg, final Throwable cause) {
+		super(msg, cause);
+	}
+
+	public static RuntimeException of(final String msg) {
+		return _of(DataQueryException.class, msg);
+	}
+
+	public static RuntimeException of(final Throwable throwable) {
+		return _of(DataQueryException.class, null, throwable);
+	}
+
+	private static final long serialVersionUID = 2466218372816400557L;
+}
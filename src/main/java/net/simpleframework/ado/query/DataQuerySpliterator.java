@@ -0,0 +1,131 @@
+package net.simpleframework.ado.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可分割的DataQuery遍历器
+ * 
+ * 已知getCount()的DataQuery按position()/move()区间二分；未知数量的按批次切分
+ * 
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class DataQuerySpliterator<T> {
+	private final IDataQuery<T> dataQuery;
+
+	private final int batchSize;
+
+	/**
+	 * 区间[origin, fence)，fence小于0表示数量未知
+	 */
+	private int origin, fence;
+
+	public DataQuerySpliterator(final IDataQuery<T> dataQuery) {
+		this(dataQuery, 0);
+	}
+
+	public DataQuerySpliterator(final IDataQuery<T> dataQuery, final int batchSize) {
+		this(dataQuery, dataQuery.position() + 1, dataQuery.getCount(),
+				batchSize > 0 ? batchSize
+						: (dataQuery.getFetchSize() > 0 ? dataQuery.getFetchSize()
+								: AbstractDataQuery.DEFAULT_BATCH_SIZE));
+	}
+
+	private DataQuerySpliterator(final IDataQuery<T> dataQuery, final int origin, final int fence,
+			final int batchSize) {
+		this.dataQuery = dataQuery;
+		this.origin = origin;
+		this.fence = fence;
+		this.batchSize = batchSize;
+	}
+
+	public IDataQuery<T> getDataQuery() {
+		return dataQuery;
+	}
+
+	/**
+	 * 剩余的数量，-1表示未知
+	 * 
+	 * @return
+	 */
+	public int estimateSize() {
+		return fence < 0 ? -1 : Math.max(fence - origin, 0);
+	}
+
+	/**
+	 * 分割出前一部分，返回null表示不可再分
+	 * 
+	 * @return
+	 */
+	public DataQuerySpliterator<T> trySplit() {
+		if (fence < 0) {
+			final List<T> beans = new ArrayList<T>(batchSize);
+			if (fetch(beans, batchSize) == 0) {
+				return null;
+			}
+			final ListDataObjectQuery<T> chunk = new ListDataObjectQuery<T>(beans);
+			return new DataQuerySpliterator<T>(chunk, 0, beans.size(), batchSize);
+		}
+		final int size = fence - origin;
+		if (size <= batchSize) {
+			return null;
+		}
+		final int mid = origin + (size >>> 1);
+		final DataQuerySpliterator<T> prefix = new DataQuerySpliterator<T>(dataQuery, origin, mid,
+				batchSize);
+		origin = mid;
+		return prefix;
+	}
+
+	/**
+	 * 按批次处理剩余的全部数据
+	 * 
+	 * @param handler
+	 */
+	public void forEachRemaining(final IDataBatchHandler<T> handler) {
+		final List<T> beans = new ArrayList<T>(batchSize);
+		while (fetch(beans, batchSize) > 0) {
+			handler.batch(dataQuery, beans);
+		}
+	}
+
+	private int fetch(final List<T> beans, final int size) {
+		beans.clear();
+		if (fence >= 0) {
+			final int n = Math.min(size, fence - origin);
+			if (n <= 0) {
+				return 0;
+			}
+			if (dataQuery instanceof ListDataObjectQuery) {
+				final List<T> list = ((ListDataObjectQuery<T>) dataQuery).getList();
+				beans.addAll(list.subList(Math.min(origin, list.size()),
+						Math.min(origin + n, list.size())));
+			} else {
+				// 多个分片共享同一游标，读取时需互斥
+				synchronized (dataQuery) {
+					dataQuery.move(origin - 1);
+					T t;
+					while (beans.size() < n && (t = dataQuery.next()) != null) {
+						beans.add(t);
+					}
+				}
+			}
+			origin += beans.size();
+			if (beans.size() < n) {
+				// 数据源比预期的少，结束该区间
+				fence = origin;
+			}
+		} else {
+			synchronized (dataQuery) {
+				T t;
+				while (beans.size() < size && (t = dataQuery.next()) != null) {
+					beans.add(t);
+				}
+			}
+		}
+		return beans.size();
+	}
+}
@@ -1,8 +1,17 @@
 package net.simpleframework.ado.query;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -49,4 +58,99 @@ public abstract class DataQueryUtils {
 		}
 		return al;
 	}
+
+	public static <T> DataQuerySpliterator<T> spliterator(final IDataQuery<T> dataQuery) {
+		return new DataQuerySpliterator<T>(dataQuery);
+	}
+
+	/**
+	 * 分批遍历dataQuery。parallel为true时，各批次在多个线程中并行处理，handler须是线程安全的
+	 * 
+	 * @param dataQuery
+	 * @param handler
+	 * @param parallel
+	 */
+	public static <T> void forEach(final IDataQuery<T> dataQuery,
+			final IDataBatchHandler<T> handler, final boolean parallel) {
+		final DataQuerySpliterator<T> root = spliterator(dataQuery);
+		if (!parallel || PARALLELISM < 2) {
+			root.forEachRemaining(handler);
+			return;
+		}
+
+		final ExecutorService executor = getParallelExecutor();
+		final List<Future<?>> futures = new ArrayList<Future<?>>();
+		// 限制同时在内存中的批次数量
+		final Semaphore permits = new Semaphore(PARALLELISM * 2);
+		try {
+			final int size = root.estimateSize();
+			if (size >= 0) {
+				final int threshold = Math.max(size / (PARALLELISM * 4), 1);
+				final Deque<DataQuerySpliterator<T>> deque = new ArrayDeque<DataQuerySpliterator<T>>();
+				deque.push(root);
+				DataQuerySpliterator<T> s;
+				while ((s = deque.poll()) != null) {
+					DataQuerySpliterator<T> prefix;
+					if (s.estimateSize() > threshold && (prefix = s.trySplit()) != null) {
+						deque.push(s);
+						deque.push(prefix);
+					} else {
+						futures.add(submit(executor, permits, s, handler));
+					}
+				}
+			} else {
+				DataQuerySpliterator<T> chunk;
+				while ((chunk = root.trySplit()) != null) {
+					futures.add(submit(executor, permits, chunk, handler));
+				}
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw DataQueryException.of(e);
+		} catch (final ExecutionException e) {
+			throw DataQueryException.of(e.getCause());
+		} finally {
+			for (final Future<?> future : futures) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	private static <T> Future<?> submit(final ExecutorService executor, final Semaphore permits,
+			final DataQuerySpliterator<T> s, final IDataBatchHandler<T> handler)
+			throws InterruptedException {
+		permits.acquire();
+		return executor.submit(new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				try {
+					s.forEachRemaining(handler);
+					return null;
+				} finally {
+					permits.release();
+				}
+			}
+		});
+	}
+
+	static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	private static ExecutorService parallelExecutor;
+
+	private static synchronized ExecutorService getParallelExecutor() {
+		if (parallelExecutor == null) {
+			parallelExecutor = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread t = new Thread(r, "DataQuery-parallel");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return parallelExecutor;
+	}
 }
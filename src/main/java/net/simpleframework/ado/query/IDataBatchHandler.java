@@ -0,0 +1,23 @@
+package net.simpleframework.ado.query;
+
+import java.util.List;
+
+/**
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public interface IDataBatchHandler<T> {
+
+	/**
+	 * 处理一批数据。beans在两次调用之间会被复用，不要在回调外持有它的引用
+	 * 
+	 * 预取模式下(forEachBatch(handler, true))，回调执行的同时后台线程正在用dataQuery的游标读取下一批，
+	 * 此时不得调用dataQuery的next、move、reset、getCount等方法，否则与预取并发访问游标
+	 * 
+	 * @param dataQuery
+	 * @param beans
+	 */
+	void batch(IDataQuery<T> dataQuery, List<T> beans);
+}
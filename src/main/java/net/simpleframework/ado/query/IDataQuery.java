@@ -44,6 +44,31 @@ public interface IDataQuery<T> {
 	 */
 	IDataQuery<T> setFetchSize(int fetchSize);
 
+	/**
+	 * 批量获取对象，最多填充buf.length个
+	 * 
+	 * @param buf
+	 * @return 实际填充的数量，0表示已没有可用的数据
+	 */
+	int nextBatch(T[] buf);
+
+	/**
+	 * 按fetchSize分批遍历
+	 * 
+	 * @param handler
+	 */
+	void forEachBatch(IDataBatchHandler<T> handler);
+
+	/**
+	 * 按fetchSize分批遍历
+	 * 
+	 * @param handler
+	 * @param prefetch
+	 *        是否在后台线程中预取下一批数据；预取时handler不得访问传入的dataQuery，见
+	 *        {@link IDataBatchHandler#batch(IDataQuery, java.util.List)}
+	 */
+	void forEachBatch(IDataBatchHandler<T> handler, boolean prefetch);
+
 	void reset();
 
 	void close();
@@ -0,0 +1,111 @@
+package net.simpleframework.ado.query;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import net.simpleframework.common.JsonUtils;
+import net.simpleframework.lib.net.minidev.json.parser.JSONArrayReader;
+
+/**
+ * 以json数组为数据源的查询，边读边解析，只能向前移动游标
+ *
+ * 数组中的null元素被跳过；读完之前getCount返回-1
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class JsonDataQuery<T> extends AbstractDataQuery<T> {
+
+	private final JSONArrayReader<T> reader;
+
+	private int fetchSize;
+
+	/**
+	 * 是否已开始读取，开始后不能再reset
+	 */
+	private boolean reading;
+
+	public JsonDataQuery(final Reader json, final Class<T> beanClass) {
+		reader = JsonUtils.toIterator(json, beanClass);
+	}
+
+	/**
+	 * @param json
+	 *        UTF-8编码
+	 * @param beanClass
+	 */
+	public JsonDataQuery(final InputStream json, final Class<T> beanClass) {
+		reader = JsonUtils.toIterator(json, beanClass);
+	}
+
+	@Override
+	public T next() {
+		if (count >= 0) {
+			return null;
+		}
+		reading = true;
+		try {
+			while (reader.hasNextElement()) {
+				final T t = reader.nextElement();
+				if (t != null) {
+					i++;
+					return t;
+				}
+			}
+		} catch (final Exception e) {
+			throw DataQueryException.of(e);
+		}
+		count = i + 1;
+		return null;
+	}
+
+	@Override
+	public void move(final int toIndex) {
+		if (toIndex < i) {
+			throw DataQueryException.of("JsonDataQuery cannot move backwards");
+		}
+		while (i < toIndex && next() != null) {
+		}
+	}
+
+	/**
+	 * 开始读取前不改变状态，之后无法回到开头
+	 */
+	@Override
+	public void reset() {
+		if (reading) {
+			throw DataQueryException.of("JsonDataQuery cannot be reset after reading has started");
+		}
+		// 不经过move，父类构造时reader尚未赋值
+		i = -1;
+		count = -1;
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	@Override
+	public JsonDataQuery<T> setFetchSize(final int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	@Override
+	public void close() {
+		try {
+			reader.close();
+		} catch (final IOException e) {
+			throw DataQueryException.of(e);
+		}
+	}
+}
@@ -14,6 +14,8 @@ public class ListDataObjectQuery<T> extends AbstractDataQuery<T> {
 
 	private List<T> list;
 
+	private int fetchSize;
+
 	public ListDataObjectQuery() {
 		this(null);
 	}
@@ -31,6 +33,35 @@ public class ListDataObjectQuery<T> extends AbstractDataQuery<T> {
 		return ++i < getCount() && list != null ? list.get(i) : null;
 	}
 
+	@Override
+	public int nextBatch(final T[] buf) {
+		if (list == null) {
+			return 0;
+		}
+		final int from = i + 1;
+		final int n = Math.max(Math.min(buf.length, getCount() - from), 0);
+		for (int j = 0; j < n; j++) {
+			buf[j] = list.get(from + j);
+		}
+		i += n;
+		return n;
+	}
+
+	@Override
+	protected int fetchBatch(final List<T> beans, final int size) {
+		beans.clear();
+		if (list == null) {
+			return 0;
+		}
+		final int from = i + 1;
+		final int to = Math.min(from + size, getCount());
+		if (from < to) {
+			beans.addAll(list.subList(from, to));
+			i = to - 1;
+		}
+		return beans.size();
+	}
+
 	@Override
 	public int getCount() {
 		if (list != null && count < 0) {
@@ -41,11 +72,12 @@ public class ListDataObjectQuery<T> extends AbstractDataQuery<T> {
 
 	@Override
 	public int getFetchSize() {
-		return 0;
+		return fetchSize;
 	}
 
 	@Override
 	public ListDataObjectQuery<T> setFetchSize(final int fetchSize) {
+		this.fetchSize = fetchSize;
 		return this;
 	}
 }
@@ -0,0 +1,425 @@
+package net.simpleframework.ado.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.simpleframework.ado.ColumnData;
+import net.simpleframework.ado.EFilterOpe;
+import net.simpleframework.ado.EFilterRelation;
+import net.simpleframework.ado.EOrder;
+import net.simpleframework.ado.FilterItem;
+import net.simpleframework.ado.IFilterPredicate;
+import net.simpleframework.common.BeanUtils;
+import net.simpleframework.common.Convert;
+
+/**
+ * 内存数据的查询引擎
+ *
+ * 按FilterItems过滤、按ColumnData排序，FilterItem只编译一次；可为列建立哈希索引(等值查询)或有序索引(范围查询)。
+ * 构造后不应再修改beans，否则需重新创建引擎。引擎可被多个线程共享
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class MemoryDataQueryEngine<T> {
+	private final List<T> beans;
+
+	private final ConcurrentMap<String, Column> columns = new ConcurrentHashMap<String, Column>();
+
+	public MemoryDataQueryEngine(final Collection<T> beans) {
+		this.beans = beans == null ? new ArrayList<T>() : new ArrayList<T>(beans);
+	}
+
+	public int size() {
+		return beans.size();
+	}
+
+	/**
+	 * 为列建立哈希索引，用于equal条件
+	 *
+	 * @param name
+	 * @return
+	 */
+	public MemoryDataQueryEngine<T> addHashIndex(final String name) {
+		getColumn(name).hashIndex();
+		return this;
+	}
+
+	/**
+	 * 为列建立有序索引，用于gt/gt_equal/lt/lt_equal条件
+	 *
+	 * @param name
+	 * @return
+	 */
+	public MemoryDataQueryEngine<T> addSortedIndex(final String name) {
+		getColumn(name).sortedIndex();
+		return this;
+	}
+
+	public IDataQuery<T> query(final Collection<FilterItem> items, final ColumnData... orders) {
+		return new ListDataObjectQuery<T>(list(items, orders));
+	}
+
+	public List<T> list(final Collection<FilterItem> items, final ColumnData... orders) {
+		final List<List<Condition>> groups = compile(items);
+		final int size = beans.size();
+		int[] candidates = null;
+		if (groups.size() == 1) {
+			candidates = lookup(groups.get(0));
+		}
+
+		final List<Integer> positions = new ArrayList<Integer>();
+		final int n = candidates != null ? candidates.length : size;
+		for (int j = 0; j < n; j++) {
+			final int pos = candidates != null ? candidates[j] : j;
+			if (accept(groups, pos)) {
+				positions.add(pos);
+			}
+		}
+
+		final Comparator<Integer> comparator = comparator(orders);
+		if (comparator != null) {
+			Collections.sort(positions, comparator);
+		}
+
+		final List<T> l = new ArrayList<T>(positions.size());
+		for (final Integer pos : positions) {
+			l.add(beans.get(pos));
+		}
+		return l;
+	}
+
+	/**
+	 * 按ope分组：or分隔各组，组内为and，与sql中and优先于or的语义一致
+	 */
+	private List<List<Condition>> compile(final Collection<FilterItem> items) {
+		final List<List<Condition>> groups = new ArrayList<List<Condition>>();
+		List<Condition> group = new ArrayList<Condition>();
+		groups.add(group);
+		if (items != null) {
+			for (final FilterItem item : items) {
+				if (item == null) {
+					continue;
+				}
+				if (item.getOpe() == EFilterOpe.or && !group.isEmpty()) {
+					group = new ArrayList<Condition>();
+					groups.add(group);
+				}
+				group.add(new Condition(item));
+			}
+		}
+		return groups;
+	}
+
+	private boolean accept(final List<List<Condition>> groups, final int pos) {
+		for (final List<Condition> group : groups) {
+			boolean b = true;
+			for (final Condition condition : group) {
+				if (!condition.accept(pos)) {
+					b = false;
+					break;
+				}
+			}
+			if (b) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 利用索引得到候选行，按原顺序排列；返回null表示需全表扫描
+	 */
+	private int[] lookup(final List<Condition> group) {
+		int[] candidates = null;
+		for (final Condition condition : group) {
+			if (condition.item.getOrItem() != null || condition.column == null) {
+				continue;
+			}
+			final int[] c = condition.column.lookup(condition.item, condition.predicate);
+			if (c != null && (candidates == null || c.length < candidates.length)) {
+				candidates = c;
+			}
+		}
+		return candidates;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Comparator<Integer> comparator(final ColumnData... orders) {
+		if (orders == null) {
+			return null;
+		}
+		final List<Column> cols = new ArrayList<Column>();
+		final List<Boolean> descs = new ArrayList<Boolean>();
+		for (final ColumnData order : orders) {
+			if (order == null || order.getOrder() == EOrder.normal) {
+				continue;
+			}
+			cols.add(getColumn(order.getName()));
+			descs.add(order.getOrder() == EOrder.desc);
+		}
+		if (cols.isEmpty()) {
+			return null;
+		}
+		return new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer p1, final Integer p2) {
+				for (int j = 0; j < cols.size(); j++) {
+					final Object[] values = cols.get(j).values;
+					final int c = compareValue((Comparable) values[p1], (Comparable) values[p2]);
+					if (c != 0) {
+						return descs.get(j) ? -c : c;
+					}
+				}
+				return 0;
+			}
+		};
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static int compareValue(final Comparable v1, final Comparable v2) {
+		if (v1 == v2) {
+			return 0;
+		} else if (v1 == null) {
+			return -1;
+		} else if (v2 == null) {
+			return 1;
+		}
+		return v1.compareTo(v2);
+	}
+
+	Column getColumn(final String name) {
+		Column column = columns.get(name);
+		if (column == null) {
+			// 并发添加索引时保留先放入的列
+			final Column current = columns.putIfAbsent(name, column = new Column(name));
+			if (current != null) {
+				column = current;
+			}
+		}
+		return column;
+	}
+
+	private class Condition {
+		final FilterItem item;
+
+		final Column column;
+
+		final IFilterPredicate predicate;
+
+		/**
+		 * orItem链
+		 */
+		final Condition next;
+
+		Condition(final FilterItem item) {
+			this.item = item;
+			if (item == FilterItem.TRUE || item == FilterItem.FALSE) {
+				column = null;
+				predicate = item.compile(null);
+			} else {
+				column = getColumn(item.getColumn());
+				predicate = item.compile(column.type);
+			}
+			// 同列的orItem已编译在predicate中
+			FilterItem orItem = item.getOrItem();
+			while (orItem != null && item.getColumn() != null
+					&& item.getColumn().equals(orItem.getColumn())) {
+				orItem = orItem.getOrItem();
+			}
+			next = orItem != null ? new Condition(orItem) : null;
+		}
+
+		boolean accept(final int pos) {
+			final boolean b = predicate.accept(column != null ? column.values[pos] : null);
+			return b || (next != null && next.accept(pos));
+		}
+	}
+
+	class Column {
+		final String name;
+
+		final Class<?> type;
+
+		final Object[] values;
+
+		private volatile Map<Object, int[]> hash;
+
+		/**
+		 * 有序索引，nulls为不参与排序的行(空值及NaN)
+		 */
+		private volatile int[] sorted, nulls;
+
+		Column(final String name) {
+			this.name = name;
+			final int size = beans.size();
+			values = new Object[size];
+			Class<?> type = null;
+			for (int j = 0; j < size; j++) {
+				final T bean = beans.get(j);
+				values[j] = BeanUtils.getProperty(bean, name);
+				if (type == null && bean != null) {
+					type = BeanUtils.getPropertyType(bean, name);
+				}
+			}
+			this.type = wrap(type);
+		}
+
+		void hashIndex() {
+			if (hash != null) {
+				return;
+			}
+			final Map<Object, List<Integer>> m = new HashMap<Object, List<Integer>>();
+			for (int j = 0; j < values.length; j++) {
+				List<Integer> l = m.get(values[j]);
+				if (l == null) {
+					m.put(values[j], l = new ArrayList<Integer>());
+				}
+				l.add(j);
+			}
+			final Map<Object, int[]> h = new HashMap<Object, int[]>(m.size() * 4 / 3 + 1);
+			for (final Map.Entry<Object, List<Integer>> e : m.entrySet()) {
+				h.put(e.getKey(), toArray(e.getValue()));
+			}
+			hash = h;
+		}
+
+		@SuppressWarnings({ "rawtypes" })
+		void sortedIndex() {
+			if (sorted != null || !Comparable.class.isAssignableFrom(type)) {
+				return;
+			}
+			final List<Integer> l = new ArrayList<Integer>();
+			final List<Integer> n = new ArrayList<Integer>();
+			for (int j = 0; j < values.length; j++) {
+				(values[j] == null || isNaN(values[j]) ? n : l).add(j);
+			}
+			Collections.sort(l, new Comparator<Integer>() {
+				@Override
+				public int compare(final Integer p1, final Integer p2) {
+					return compareValue((Comparable) values[p1], (Comparable) values[p2]);
+				}
+			});
+			nulls = toArray(n);
+			sorted = toArray(l);
+		}
+
+		/**
+		 * 范围条件直接用编译后的predicate在有序索引上二分查找，保证与全表扫描结果一致
+		 */
+		int[] lookup(final FilterItem item, final IFilterPredicate predicate) {
+			final EFilterRelation r = item.getRelation();
+			if (r == EFilterRelation.equal) {
+				final Map<Object, int[]> h = hash;
+				if (h == null) {
+					return null;
+				}
+				final int[] c = h.get(toKey(item.getValue()));
+				return c != null ? c : new int[0];
+			} else if (r == EFilterRelation.gt || r == EFilterRelation.gt_equal
+					|| r == EFilterRelation.lt || r == EFilterRelation.lt_equal) {
+				final int[] s = sorted;
+				if (s == null) {
+					return null;
+				}
+				int from = 0, to = s.length;
+				if (r == EFilterRelation.gt || r == EFilterRelation.gt_equal) {
+					from = bound(s, predicate, true);
+				} else {
+					to = bound(s, predicate, false);
+				}
+				// 空值及NaN交由编译后的条件判断
+				final int[] c = new int[to - from + nulls.length];
+				System.arraycopy(s, from, c, 0, to - from);
+				System.arraycopy(nulls, 0, c, to - from, nulls.length);
+				Arrays.sort(c);
+				return c;
+			}
+			return null;
+		}
+
+		/**
+		 * 第一个predicate结果为accept的位置
+		 *
+		 * 按有序索引，gt/gt_equal满足的行在后段，lt/lt_equal满足的行在前段，条件值无需转换为列类型
+		 */
+		private int bound(final int[] s, final IFilterPredicate predicate, final boolean accept) {
+			int lo = 0, hi = s.length;
+			while (lo < hi) {
+				final int mid = (lo + hi) >>> 1;
+				if (predicate.accept(values[s[mid]]) != accept) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+		/**
+		 * 等值查询的哈希键，候选行仍会经过编译后的条件判断
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private Object toKey(final Object value) {
+			if (value == null || type.isInstance(value)) {
+				return value;
+			}
+			if (Enum.class.isAssignableFrom(type)) {
+				return Convert.toEnum((Class<Enum>) type, value);
+			} else if (Number.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)
+					|| type == String.class || type == Boolean.class || type == Character.class) {
+				return Convert.convert(value, type);
+			}
+			return value;
+		}
+	}
+
+	private static boolean isNaN(final Object v) {
+		return (v instanceof Double && ((Double) v).isNaN())
+				|| (v instanceof Float && ((Float) v).isNaN());
+	}
+
+	private static int[] toArray(final List<Integer> l) {
+		final int[] arr = new int[l.size()];
+		for (int j = 0; j < arr.length; j++) {
+			arr[j] = l.get(j);
+		}
+		return arr;
+	}
+
+	private static Class<?> wrap(final Class<?> type) {
+		if (type == null) {
+			return Object.class;
+		} else if (!type.isPrimitive()) {
+			return type;
+		} else if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else if (type == char.class) {
+			return Character.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		}
+		return type;
+	}
+}
@@ -0,0 +1,162 @@
+package net.simpleframework.common;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.simpleframework.common.BeanUtils.PropertyWrapper;
+import net.simpleframework.common.logger.Log;
+import net.simpleframework.common.logger.LogFactory;
+import net.simpleframework.common.th.ClassException;
+import net.simpleframework.lib.net.sf.cglib.reflect.FastClass;
+
+/**
+ * bean属性的访问器，按整数下标读写属性
+ *
+ * 基于cglib的FastClass生成字节码，getter/setter(包括返回this的setter)都直接调用，无反射。
+ * 属性下标可通过getIndex在调用处解析一次后复用
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class BeanAccessor {
+	static Log log = LogFactory.getLogger(BeanAccessor.class);
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+	public static BeanAccessor get(final Class<?> beanClass) {
+		return BeanUtils.getBeanAccessor(beanClass);
+	}
+
+	private final Class<?> beanClass;
+
+	private final FastClass fastClass;
+
+	private final String[] names;
+
+	private final Class<?>[] types;
+
+	/**
+	 * FastClass中getter/setter的下标，-1表示不存在
+	 */
+	private final int[] getters, setters;
+
+	/**
+	 * setter是否为不符合bean规范的方法(如返回this)，这类setter出错时只记录日志
+	 */
+	private final boolean[] setters2;
+
+	private final Map<String, Integer> indexes;
+
+	BeanAccessor(final Class<?> beanClass, final PropertyWrapper[] properties) {
+		this.beanClass = beanClass;
+		fastClass = FastClass.create(beanClass);
+		final int n = properties.length;
+		names = new String[n];
+		types = new Class<?>[n];
+		getters = new int[n];
+		setters = new int[n];
+		setters2 = new boolean[n];
+		indexes = new HashMap<String, Integer>(n * 4 / 3 + 1);
+		for (int i = 0; i < n; i++) {
+			final PropertyWrapper pw = properties[i];
+			names[i] = pw.name;
+			types[i] = pw.type;
+			getters[i] = methodIndex(pw.getter);
+			setters[i] = methodIndex(pw.setter != null ? pw.setter : pw.setter2);
+			setters2[i] = pw.setter == null && pw.setter2 != null;
+			indexes.put(pw.name, i);
+		}
+	}
+
+	private int methodIndex(final Method method) {
+		return method == null ? -1 : fastClass.getIndex(method.getName(),
+				method.getParameterTypes());
+	}
+
+	public Class<?> getBeanClass() {
+		return beanClass;
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * 属性的下标，不存在返回-1
+	 *
+	 * @param name
+	 * @return
+	 */
+	public int getIndex(final String name) {
+		final Integer i = indexes.get(name);
+		return i != null ? i : -1;
+	}
+
+	public String getName(final int idx) {
+		return names[idx];
+	}
+
+	public Class<?> getPropertyType(final int idx) {
+		return types[idx];
+	}
+
+	public boolean isReadable(final int idx) {
+		return getters[idx] >= 0;
+	}
+
+	public boolean isWritable(final int idx) {
+		return setters[idx] >= 0;
+	}
+
+	public Object get(final Object bean, final int idx) {
+		final int m = getters[idx];
+		if (m < 0) {
+			return null;
+		}
+		try {
+			return fastClass.invoke(m, bean, NO_ARGS);
+		} catch (final InvocationTargetException e) {
+			throw ClassException.of(e.getTargetException());
+		}
+	}
+
+	/**
+	 * 设置属性值，值按属性类型转换
+	 *
+	 * 不符合bean规范的setter调用出错时记录日志后继续，其它setter出错抛出ClassException
+	 *
+	 * @param bean
+	 * @param idx
+	 * @param value
+	 */
+	public void set(final Object bean, final int idx, final Object value) {
+		final int m = setters[idx];
+		if (m < 0) {
+			return;
+		}
+		final Class<?> type = types[idx];
+		final Object val = BeanUtils.convert(value, type);
+		if (val == null && type.isPrimitive()) {
+			// 基本类型忽略
+			return;
+		}
+		if (setters2[idx]) {
+			try {
+				// 处理不符合bean规范的
+				fastClass.invoke(m, bean, new Object[] { val });
+			} catch (final Exception e) {
+				log.warn(e);
+			}
+			return;
+		}
+		try {
+			fastClass.invoke(m, bean, new Object[] { val });
+		} catch (final InvocationTargetException e) {
+			throw ClassException.of(e.getTargetException());
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package net.simpleframework.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.simpleframework.common.BeanUtils.PropertyWrapper;
+import net.simpleframework.lib.net.sf.cglib.beans.BeanCopier;
+import net.simpleframework.lib.net.sf.cglib.core.Converter;
+import net.simpleframework.lib.org.mvel2.util.ParseTools;
+
+/**
+ * bean之间的属性复制器，基于cglib的BeanCopier生成字节码，按BeanUtils的规则(ID、Version、Enum等)转换类型
+ *
+ * 通过BeanUtils.getMapper获取，同一对类只生成一次
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class BeanMapper {
+	private final Class<?> sourceClass, targetClass;
+
+	private final BeanCopier copier;
+
+	private final BeanAccessor sourceAccessor, targetAccessor;
+
+	/**
+	 * setter名称对应的目标属性下标，用于跳过null值
+	 */
+	private final Map<String, Integer> setterIndexes;
+
+	/**
+	 * BeanCopier不处理的属性(如返回this的setter)，[源下标, 目标下标]
+	 */
+	private final int[][] extras;
+
+	private final Converter converter = new Converter() {
+		@Override
+		public Object convert(final Object value, final Class target, final Object context) {
+			return BeanMapper.convert(value, target);
+		}
+	};
+
+	BeanMapper(final Class<?> sourceClass, final Class<?> targetClass) {
+		this.sourceClass = sourceClass;
+		this.targetClass = targetClass;
+		copier = BeanCopier.create(sourceClass, targetClass, true);
+		sourceAccessor = BeanAccessor.get(sourceClass);
+		targetAccessor = BeanAccessor.get(targetClass);
+
+		setterIndexes = new HashMap<String, Integer>();
+		final List<int[]> l = new ArrayList<int[]>();
+		for (final PropertyWrapper pw : BeanUtils.getProperties(targetClass).values()) {
+			final int t = targetAccessor.getIndex(pw.name);
+			if (pw.setter != null) {
+				setterIndexes.put(pw.setter.getName(), t);
+			} else if (pw.setter2 != null) {
+				final int s = sourceAccessor.getIndex(pw.name);
+				if (s >= 0 && sourceAccessor.isReadable(s)) {
+					l.add(new int[] { s, t });
+				}
+			}
+		}
+		extras = l.toArray(new int[l.size()][]);
+	}
+
+	public Class<?> getSourceClass() {
+		return sourceClass;
+	}
+
+	public Class<?> getTargetClass() {
+		return targetClass;
+	}
+
+	/**
+	 * 复制属性
+	 *
+	 * @param src
+	 * @param dst
+	 * @param skipNull
+	 *        为true时源属性为null则保留目标的原值，与BeanUtils.clone一致
+	 */
+	public void copy(final Object src, final Object dst, final boolean skipNull) {
+		copier.copy(src, dst, skipNull ? new SkipNullConverter(dst) : converter);
+		for (final int[] extra : extras) {
+			final Object val = sourceAccessor.get(src, extra[0]);
+			if (val != null || !skipNull) {
+				targetAccessor.set(dst, extra[1], val);
+			}
+		}
+	}
+
+	static Object convert(final Object value, final Class<?> target) {
+		if (value == null) {
+			return null;
+		}
+		if (target.isInstance(value)
+				|| (target.isPrimitive() && ParseTools.boxPrimitive(target).isInstance(value))) {
+			return value;
+		}
+		return BeanUtils.convert(value, target);
+	}
+
+	private class SkipNullConverter implements Converter {
+		private final Object dst;
+
+		SkipNullConverter(final Object dst) {
+			this.dst = dst;
+		}
+
+		@Override
+		public Object convert(final Object value, final Class target, final Object context) {
+			if (value == null) {
+				// 写回目标的当前值
+				final Integer i = setterIndexes.get(context);
+				return i != null ? targetAccessor.get(dst, i) : null;
+			}
+			return BeanMapper.convert(value, target);
+		}
+	}
+}
@@ -8,6 +8,7 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -57,7 +58,7 @@ public abstract class BeanUtils {
 		}
 
 		final Set<String> keys = wrapper.beanMap.keySet();
-		wrapper.properties = new HashMap<String, PropertyWrapper>();
+		wrapper.properties = new LinkedHashMap<String, PropertyWrapper>();
 		for (final PropertyDescriptor pd : arr) {
 			final String name = pd.getName();
 			if (!keys.contains(name)) {
@@ -93,11 +94,17 @@ public abstract class BeanUtils {
 
 			wrapper.properties.put(name, property);
 		}
+		wrapper.accessor = new BeanAccessor(beanClass, wrapper.properties.values().toArray(
+				new PropertyWrapper[wrapper.properties.size()]));
 
 		wrapperCache.put(beanClass, wrapper);
 		return wrapper;
 	}
 
+	static BeanAccessor getBeanAccessor(final Class<?> beanClass) {
+		return getBeanWrapper(beanClass).accessor;
+	}
+
 	public static Map<String, PropertyWrapper> getProperties(final Class<?> beanClass) {
 		return new HashMap(getBeanWrapper(beanClass).properties);
 	}
@@ -168,18 +175,68 @@ public abstract class BeanUtils {
 	public static <T> T clone(final T t) {
 		final Class<?> tClass = t.getClass();
 		final T o = (T) ObjectFactory.newInstance(tClass);
-		getBeanWrapper(tClass).clone(t, o);
+		getMapper(tClass, tClass).copy(t, o, true);
+		return o;
+	}
+
+	/**
+	 * 复制src的属性到dst，src中为null的属性不复制
+	 * 
+	 * @param src
+	 * @param dst
+	 * @return
+	 */
+	public static <T> T copy(final Object src, final T dst) {
+		return copy(src, dst, true);
+	}
+
+	public static <T> T copy(final Object src, final T dst, final boolean skipNull) {
+		if (src != null && dst != null) {
+			getMapper(src.getClass(), dst.getClass()).copy(src, dst, skipNull);
+		}
+		return dst;
+	}
+
+	/**
+	 * 创建targetClass的实例，并从src复制属性
+	 * 
+	 * @param src
+	 * @param targetClass
+	 * @return
+	 */
+	public static <T> T map(final Object src, final Class<T> targetClass) {
+		if (src == null) {
+			return null;
+		}
+		final T o = ObjectFactory.newInstance(targetClass);
+		getMapper(src.getClass(), targetClass).copy(src, o, true);
 		return o;
 	}
 
+	private static Map<Class<?>, Map<Class<?>, BeanMapper>> mapperCache;
+	static {
+		mapperCache = new ConcurrentHashMap<Class<?>, Map<Class<?>, BeanMapper>>();
+	}
+
+	public static BeanMapper getMapper(final Class<?> sourceClass, final Class<?> targetClass) {
+		Map<Class<?>, BeanMapper> mappers = mapperCache.get(sourceClass);
+		if (mappers == null) {
+			mapperCache.put(sourceClass, mappers = new ConcurrentHashMap<Class<?>, BeanMapper>());
+		}
+		BeanMapper mapper = mappers.get(targetClass);
+		if (mapper == null) {
+			mappers.put(targetClass, mapper = new BeanMapper(sourceClass, targetClass));
+		}
+		return mapper;
+	}
+
 	public static String getSetterName(final String key) {
 		return "set" + key.substring(0, 1).toUpperCase(ENGLISH) + key.substring(1);
 	}
 
-	private static Object convert(final Object value, final Class<?> parameterType) {
+	static Object convert(final Object value, final Class<?> parameterType) {
 		if (Enum.class.isAssignableFrom(parameterType) && value instanceof Number) {
-			final int i = ((Number) value).intValue();
-			return ((Class<? extends Enum>) parameterType).getEnumConstants()[i];
+			return EnumLookup.get((Class<Enum>) parameterType).valueOf(((Number) value).intValue());
 		} else if (ID.class.isAssignableFrom(parameterType)) {
 			return ID.of(value);
 		} else if (Version.class.isAssignableFrom(parameterType)) {
@@ -202,6 +259,8 @@ public abstract class BeanUtils {
 
 		BeanMap beanMap;
 
+		BeanAccessor accessor;
+
 		boolean containsKey(final String key) {
 			return properties.containsKey(key);
 		}
@@ -212,42 +271,21 @@ public abstract class BeanUtils {
 		}
 
 		void set(final Object bean, final String key, final Object val) {
-			final PropertyWrapper pw = properties.get(key);
-			if (pw != null) {
-				final Object val2 = convert(val, pw.type);
-				if (val2 == null && pw.type.isPrimitive()) {
-					// 基本类型忽略
-					return;
-				}
-				if (pw.setter != null) {
-					beanMap.put(bean, key, val2);
-				} else if (pw.setter2 != null) {
-					try {
-						// 处理不符合bean规范的
-						pw.setter2.invoke(bean, val2);
-					} catch (final Exception e) {
-						log.warn(e);
-					}
-				}
+			final int i = accessor.getIndex(key);
+			if (i >= 0) {
+				accessor.set(bean, i, val);
 			}
 		}
 
 		Object get(final Object bean, final String key) {
-			return beanMap.get(bean, key);
+			final int i = accessor.getIndex(key);
+			return i >= 0 ? accessor.get(bean, i) : null;
 		}
 
 		void copy(final Object bean, final Map<String, Object> map) {
-			for (final String key : properties.keySet()) {
-				map.put(key, get(bean, key));
-			}
-		}
-
-		<T> void clone(final T bean, final T bean2) {
-			for (final String key : properties.keySet()) {
-				final Object val = get(bean, key);
-				if (val != null) {
-					set(bean2, key, val);
-				}
+			final int n = accessor.size();
+			for (int i = 0; i < n; i++) {
+				map.put(accessor.getName(i), accessor.get(bean, i));
 			}
 		}
 	}
@@ -5,11 +5,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.simpleframework.lib.org.mvel2.DataConversion;
+import net.simpleframework.lib.org.mvel2.util.ParseTools;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -22,41 +29,372 @@ public abstract class Convert {
 		return convert(value, clazz, null);
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@SuppressWarnings("unchecked")
 	public static <T> T convert(final Object value, final Class<T> targetClass, final T defaultValue) {
 		if (value == null) {
-			return defaultValue != null ? defaultValue : null;
+			return defaultValue;
 		}
-		if (targetClass.equals(value.getClass())) {
+		final Class<?> sourceClass = value.getClass();
+		if (targetClass == sourceClass) {
 			return (T) value;
 		}
+		final Object t = getConverter(sourceClass, targetClass).convert(value);
+		if (t == FAILURE || t == null) {
+			return defaultValue;
+		}
+		return (T) t;
+	}
+
+	/**
+	 * 转换失败时IConverter返回的值
+	 */
+	public static final Object FAILURE = new Object();
+
+	/**
+	 * 类型转换器，无法转换时返回FAILURE，不抛出异常
+	 */
+	public static interface IConverter {
+
+		/**
+		 *
+		 * @param value
+		 *        非null
+		 * @return
+		 */
+		Object convert(Object value);
+	}
+
+	/**
+	 * 注册的转换器，按目标类型、源类型
+	 */
+	private static Map<Class<?>, Map<Class<?>, IConverter>> registry = new ConcurrentHashMap<Class<?>, Map<Class<?>, IConverter>>();
+
+	/**
+	 * 已确定的(源类型, 目标类型)转换器
+	 *
+	 * regist时整体替换为新的缓存，使用旧缓存的调用不会把按旧注册表创建的转换器放入新缓存
+	 */
+	private static volatile ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, IConverter>> converterCache = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, IConverter>>();
+
+	/**
+	 * 注册转换器，同时作用于sourceClass的子类
+	 *
+	 * @param sourceClass
+	 * @param targetClass
+	 * @param converter
+	 */
+	public static synchronized void regist(final Class<?> sourceClass,
+			final Class<?> targetClass, final IConverter converter) {
+		Map<Class<?>, IConverter> m = registry.get(targetClass);
+		if (m == null) {
+			registry.put(targetClass, m = new ConcurrentHashMap<Class<?>, IConverter>());
+		}
+		m.put(sourceClass, converter);
+		converterCache = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, IConverter>>();
+	}
+
+	public static IConverter getConverter(final Class<?> sourceClass, final Class<?> targetClass) {
+		final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, IConverter>> cache = converterCache;
+		ConcurrentMap<Class<?>, IConverter> m = cache.get(targetClass);
+		if (m == null) {
+			final ConcurrentMap<Class<?>, IConverter> m2 = cache.putIfAbsent(targetClass,
+					m = new ConcurrentHashMap<Class<?>, IConverter>());
+			if (m2 != null) {
+				m = m2;
+			}
+		}
+		IConverter converter = m.get(sourceClass);
+		if (converter == null) {
+			final IConverter converter2 = m.putIfAbsent(sourceClass,
+					converter = createConverter(sourceClass, targetClass));
+			if (converter2 != null) {
+				converter = converter2;
+			}
+		}
+		return converter;
+	}
 
-		if (Date.class.isAssignableFrom(targetClass)) {
-			for (final String pattern : new String[] { defaultDatePattern, "yyyy-MM-dd",
-					"yyyy-MM-dd HH:mm:ss" }) {
-				final Date d = toDate(String.valueOf(value), pattern);
-				if (d != null) {
-					return (T) d;
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static IConverter createConverter(final Class<?> sourceClass, final Class<?> targetClass) {
+		final Map<Class<?>, IConverter> m = registry.get(targetClass);
+		if (m != null) {
+			for (Class<?> c = sourceClass; c != null; c = c.getSuperclass()) {
+				final IConverter converter = m.get(c);
+				if (converter != null) {
+					return converter;
 				}
 			}
-		} else if (Enum.class.isAssignableFrom(targetClass)) {
-			return (T) toEnum((Class<Enum>) targetClass, value, (Enum) defaultValue);
-		} else if (ID.class.isAssignableFrom(targetClass)) {
-			return (T) ID.of(value);
 		}
 
-		T t = null;
-		try {
-			t = DataConversion.convert(value, targetClass);
-		} catch (final Exception e) {
+		final Class<?> type = ParseTools.boxPrimitive(targetClass);
+		if (type == Date.class && Date.class.isAssignableFrom(sourceClass)) {
+			// Timestamp、java.sql.Date等转换为java.util.Date
+			return DATE_COPY_CONVERTER;
+		} else if (type.isAssignableFrom(sourceClass)) {
+			return IDENTITY_CONVERTER;
+		} else if (Date.class.isAssignableFrom(type)) {
+			return DATE_CONVERTER;
+		} else if (Enum.class.isAssignableFrom(type)) {
+			final EnumLookup<?> lookup = EnumLookup.get((Class<Enum>) type);
+			return new IConverter() {
+				@Override
+				public Object convert(final Object value) {
+					// 名称找不到时，仅数字按序号查找，其它交由调用者的默认值
+					if (!(value instanceof Number)) {
+						final Object t = lookup.valueOfIgnoreCase(Convert.toString(value));
+						if (t != null) {
+							return t;
+						} else if (!(value instanceof String && isLong((String) value))) {
+							return FAILURE;
+						}
+					}
+					final Object t = lookup.valueOf(toInt(value, -1));
+					return t != null ? t : FAILURE;
+				}
+			};
+		} else if (ID.class.isAssignableFrom(type)) {
+			return ID_CONVERTER;
+		} else if (type == String.class) {
+			return STRING_CONVERTER;
+		} else if (sourceClass == String.class || Number.class.isAssignableFrom(sourceClass)) {
+			for (int kind = 0; kind < NUMBER_TYPES.length; kind++) {
+				if (NUMBER_TYPES[kind] == type) {
+					return new NumberConverter(kind);
+				}
+			}
+			if (type == Boolean.class) {
+				return BOOL_CONVERTER;
+			}
 		}
-		if ((t == null || value == t) && defaultValue != null) {
-			return defaultValue;
+
+		if (!DataConversion.canConvert(targetClass, sourceClass)) {
+			return FAILURE_CONVERTER;
+		}
+		return new IConverter() {
+			@Override
+			public Object convert(final Object value) {
+				try {
+					return DataConversion.convert(value, targetClass);
+				} catch (final Exception e) {
+					return FAILURE;
+				}
+			}
+		};
+	}
+
+	private static final IConverter IDENTITY_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			return value;
+		}
+	};
+
+	private static final IConverter DATE_COPY_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			return new Date(((Date) value).getTime());
+		}
+	};
+
+	private static final IConverter FAILURE_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			return FAILURE;
+		}
+	};
+
+	private static final IConverter DATE_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			final String s = String.valueOf(value);
+			Date d = parseDate(s);
+			if (d != null) {
+				return d;
+			}
+			for (final String pattern : new String[] { defaultDatePattern, "yyyy-MM-dd" }) {
+				if ((d = toDate(s, pattern)) != null) {
+					return d;
+				}
+			}
+			return FAILURE;
+		}
+	};
+
+	private static final IConverter ID_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			return ID.of(value);
+		}
+	};
+
+	private static final IConverter STRING_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			return value instanceof char[] ? new String((char[]) value) : String.valueOf(value);
+		}
+	};
+
+	private static final IConverter BOOL_CONVERTER = new IConverter() {
+		@Override
+		public Object convert(final Object value) {
+			if (value instanceof Number) {
+				return ((Number) value).doubleValue() > 0;
+			}
+			final String s = (String) value;
+			return !(s.length() == 0 || "0".equals(s) || s.equalsIgnoreCase("false")
+					|| s.equalsIgnoreCase("no") || s.equalsIgnoreCase("off"));
+		}
+	};
+
+	private static final Class<?>[] NUMBER_TYPES = new Class<?>[] { Integer.class, Long.class,
+			Short.class, Byte.class, Double.class, Float.class };
+
+	private static final long[][] NUMBER_RANGES = new long[][] {
+			{ Integer.MIN_VALUE, Integer.MAX_VALUE }, { Long.MIN_VALUE, Long.MAX_VALUE },
+			{ Short.MIN_VALUE, Short.MAX_VALUE }, { Byte.MIN_VALUE, Byte.MAX_VALUE } };
+
+	/**
+	 * 数字或字符串到数字的转换，整数超出范围视为失败
+	 */
+	private static class NumberConverter implements IConverter {
+		private final int kind;
+
+		NumberConverter(final int kind) {
+			this.kind = kind;
+		}
+
+		@Override
+		public Object convert(final Object value) {
+			if (kind >= 4) {
+				double d;
+				if (value instanceof Number) {
+					d = ((Number) value).doubleValue();
+				} else {
+					final String s = (String) value;
+					if (isDecimal(s)) {
+						d = Double.parseDouble(s);
+					} else if (hasDigit(s)) {
+						try {
+							d = Double.parseDouble(s);
+						} catch (final NumberFormatException e) {
+							return FAILURE;
+						}
+					} else {
+						return FAILURE;
+					}
+				}
+				return kind == 4 ? (Object) d : (Object) (float) d;
+			}
+
+			long l;
+			if (value instanceof Double || value instanceof Float) {
+				final double d = ((Number) value).doubleValue();
+				if (d != d || d < NUMBER_RANGES[kind][0] || d > NUMBER_RANGES[kind][1]) {
+					return FAILURE;
+				}
+				l = (long) d;
+			} else if (value instanceof Number) {
+				l = ((Number) value).longValue();
+			} else if (isLong((String) value)) {
+				l = Long.parseLong((String) value);
+			} else {
+				return FAILURE;
+			}
+			if (l < NUMBER_RANGES[kind][0] || l > NUMBER_RANGES[kind][1]) {
+				return FAILURE;
+			}
+			switch (kind) {
+			case 0:
+				return (int) l;
+			case 1:
+				return l;
+			case 2:
+				return (short) l;
+			default:
+				return (byte) l;
+			}
+		}
+	}
+
+	/**
+	 * s是否为long范围内的整数，为true时Long.parseLong不会抛出异常
+	 *
+	 * @param s
+	 * @return
+	 */
+	static boolean isLong(final String s) {
+		final int len = s.length();
+		final boolean neg = len > 0 && s.charAt(0) == '-';
+		int i = len > 0 && (neg || s.charAt(0) == '+') ? 1 : 0;
+		final int digits = len - i;
+		if (digits == 0 || digits > 19) {
+			return false;
+		}
+		final String max = neg ? "9223372036854775808" : "9223372036854775807";
+		int cmp = 0;
+		for (int j = 0; i < len; i++, j++) {
+			final char c = s.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+			if (digits == 19 && cmp == 0) {
+				cmp = c - max.charAt(j);
+			}
+		}
+		return cmp <= 0;
+	}
+
+	/**
+	 * s是否为普通的小数形式，如-1.5、.5、1e10
+	 */
+	private static boolean isDecimal(final String s) {
+		final int len = s.length();
+		int i = len > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+') ? 1 : 0;
+		int digits = 0;
+		boolean dot = false;
+		for (; i < len; i++) {
+			final char c = s.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c == '.' && !dot) {
+				dot = true;
+			} else {
+				break;
+			}
 		}
-		return t;
+		if (digits == 0) {
+			return false;
+		}
+		if (i < len && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i++;
+			if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+				i++;
+			}
+			final int start = i;
+			while (i < len && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+				i++;
+			}
+			if (i == start) {
+				return false;
+			}
+		}
+		return i == len;
+	}
+
+	private static boolean hasDigit(final String s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c >= '0' && c <= '9') {
+				return true;
+			}
+		}
+		return s.contains("NaN") || s.contains("Infinity");
 	}
 
 	public static final boolean toBool(final Object obj, final boolean defaultValue) {
+		if (obj instanceof Boolean) {
+			return (Boolean) obj;
+		}
 		return convert(obj, Boolean.class, defaultValue);
 	}
 
@@ -65,6 +403,9 @@ public abstract class Convert {
 	}
 
 	public static final byte toByte(final Object obj, final byte defaultValue) {
+		if (obj instanceof Byte) {
+			return (Byte) obj;
+		}
 		return convert(obj, Byte.class, defaultValue);
 	}
 
@@ -73,6 +414,9 @@ public abstract class Convert {
 	}
 
 	public static final short toShort(final Object obj, final short defaultValue) {
+		if (obj instanceof Short) {
+			return (Short) obj;
+		}
 		return convert(obj, Short.class, defaultValue);
 	}
 
@@ -81,6 +425,14 @@ public abstract class Convert {
 	}
 
 	public static final int toInt(final Object obj, final int defaultValue) {
+		if (obj instanceof Integer) {
+			return (Integer) obj;
+		} else if (obj instanceof Short || obj instanceof Byte) {
+			return ((Number) obj).intValue();
+		} else if (obj instanceof Long || (obj instanceof String && isLong((String) obj))) {
+			final long l = obj instanceof Long ? (Long) obj : Long.parseLong((String) obj);
+			return l < Integer.MIN_VALUE || l > Integer.MAX_VALUE ? defaultValue : (int) l;
+		}
 		return convert(obj, Integer.class, defaultValue);
 	}
 
@@ -89,6 +441,12 @@ public abstract class Convert {
 	}
 
 	public static final long toLong(final Object obj, final long defaultValue) {
+		if (obj instanceof Long || obj instanceof Integer || obj instanceof Short
+				|| obj instanceof Byte) {
+			return ((Number) obj).longValue();
+		} else if (obj instanceof String && isLong((String) obj)) {
+			return Long.parseLong((String) obj);
+		}
 		return convert(obj, Long.class, defaultValue);
 	}
 
@@ -97,6 +455,12 @@ public abstract class Convert {
 	}
 
 	public static final double toDouble(final Object obj, final double defaultValue) {
+		if (obj instanceof Double || obj instanceof Float || obj instanceof Long
+				|| obj instanceof Integer || obj instanceof Short || obj instanceof Byte) {
+			return ((Number) obj).doubleValue();
+		} else if (obj instanceof String && isDecimal((String) obj)) {
+			return Double.parseDouble((String) obj);
+		}
 		return convert(obj, Double.class, defaultValue);
 	}
 
@@ -108,23 +472,29 @@ public abstract class Convert {
 		return toEnum(enumClazz, obj, null);
 	}
 
+	/**
+	 * 依次按名称、忽略大小写的名称查找，找不到时返回defaultValue，defaultValue为null时按序号查找
+	 */
 	@SuppressWarnings("unchecked")
 	public static <T extends Enum<T>> T toEnum(final Class<T> enumClazz, final Object obj,
 			final T defaultValue) {
 		if (obj == null) {
 			return defaultValue;
 		}
-		if (enumClazz.isAssignableFrom(obj.getClass())) {
+		if (enumClazz.isInstance(obj)) {
 			return (T) obj;
 		}
-		try {
-			return Enum.valueOf(enumClazz, toString(obj));
-		} catch (final Throwable e) {
-			if (defaultValue != null) {
-				return defaultValue;
+		final EnumLookup<T> lookup = EnumLookup.get(enumClazz);
+		if (!(obj instanceof Number)) {
+			final T t = lookup.valueOfIgnoreCase(toString(obj));
+			if (t != null) {
+				return t;
 			}
-			return enumClazz.getEnumConstants()[toInt(obj)];
 		}
+		if (defaultValue != null) {
+			return defaultValue;
+		}
+		return lookup.valueOf(toInt(obj));
 	}
 
 	public static final String toString(final Object obj) {
@@ -211,9 +581,34 @@ public abstract class Convert {
 
 	public static String defaultDatePattern = "yyyy-MM-dd HH:mm";
 
+	/**
+	 * 每个线程缓存已创建的SimpleDateFormat，按pattern获取
+	 */
+	private static ThreadLocal<Map<String, SimpleDateFormat>> dateFormats = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+		@Override
+		protected Map<String, SimpleDateFormat> initialValue() {
+			return new HashMap<String, SimpleDateFormat>();
+		}
+	};
+
+	private static SimpleDateFormat getDateFormat(final String pattern) {
+		final Map<String, SimpleDateFormat> formats = dateFormats.get();
+		SimpleDateFormat sdf = formats.get(pattern);
+		if (sdf == null) {
+			formats.put(pattern, sdf = new SimpleDateFormat(pattern));
+		}
+		return sdf;
+	}
+
+	private static ThreadLocal<Calendar> calendars = new ThreadLocal<Calendar>() {
+		@Override
+		protected Calendar initialValue() {
+			return Calendar.getInstance();
+		}
+	};
+
 	public static final String toDateString(final Date date, final String pattern) {
-		final SimpleDateFormat sdf = new SimpleDateFormat(pattern);
-		return date == null ? null : sdf.format(date);
+		return date == null ? null : getDateFormat(pattern).format(date);
 	}
 
 	public static final String toDateString(final Date date) {
@@ -221,15 +616,74 @@ public abstract class Convert {
 	}
 
 	public static final Date toDate(final String dateString, final String pattern) {
-		final SimpleDateFormat sdf = new SimpleDateFormat(pattern);
-		try {
-			return sdf.parse(dateString);
-		} catch (final Exception e) {
+		if (dateString == null) {
 			return null;
 		}
+		// 不匹配时返回null，不抛出ParseException
+		return getDateFormat(pattern).parse(dateString, new ParsePosition(0));
 	}
 
 	public static final Date toDate(final String dateString) {
 		return toDate(dateString, defaultDatePattern);
 	}
+
+	/**
+	 * 解析yyyy-MM-dd[ HH:mm[:ss[.SSS]]]格式的日期，按输入的形态判断，不匹配返回null
+	 *
+	 * @param s
+	 * @return
+	 */
+	static Date parseDate(final String s) {
+		final int len = s.length();
+		if (len < 8 || len > 29) {
+			return null;
+		}
+		// 年、月、日、时、分、秒、毫秒
+		final int[] fields = new int[7];
+		int i = 0, field = 0;
+		while (true) {
+			final int start = i;
+			int v = 0;
+			while (i < len && i - start < (field == 0 ? 4 : (field == 6 ? 9 : 2))) {
+				final char c = s.charAt(i);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				v = v * 10 + (c - '0');
+				i++;
+			}
+			final int digits = i - start;
+			if (digits == 0) {
+				return null;
+			}
+			if (field == 6) {
+				// 小数部分只取到毫秒
+				for (int j = digits; j < 3; j++) {
+					v *= 10;
+				}
+				for (int j = digits; j > 3; j--) {
+					v /= 10;
+				}
+			}
+			fields[field] = v;
+			if (i == len) {
+				break;
+			}
+			final char sep = s.charAt(i++);
+			if (field < 2 ? sep != '-' : (field == 2 ? sep != ' ' : (field < 5 ? sep != ':'
+					: (field == 5 ? sep != '.' : true)))) {
+				return null;
+			}
+			field++;
+		}
+		// 只有年月日，或者至少到分钟
+		if (field != 2 && field < 4) {
+			return null;
+		}
+		final Calendar cal = calendars.get();
+		cal.clear();
+		cal.set(fields[0], fields[1] - 1, fields[2], fields[3], fields[4], fields[5]);
+		cal.set(Calendar.MILLISECOND, fields[6]);
+		return cal.getTime();
+	}
 }
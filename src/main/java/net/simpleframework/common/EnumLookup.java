@@ -0,0 +1,100 @@
+package net.simpleframework.common;
+
+import static java.util.Locale.ENGLISH;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 枚举常量的查找表，按名称、忽略大小写的名称及序号查找，每个枚举类只创建一次
+ *
+ * 查找不到时返回null，不抛出异常
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class EnumLookup<T extends Enum<T>> {
+	private static Map<Class<?>, EnumLookup<?>> lookupCache;
+	static {
+		lookupCache = new ConcurrentHashMap<Class<?>, EnumLookup<?>>();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static <T extends Enum<T>> EnumLookup<T> get(final Class<T> enumClass) {
+		EnumLookup<T> lookup = (EnumLookup<T>) lookupCache.get(enumClass);
+		if (lookup == null) {
+			// 带有方法体的常量，其类为枚举的子类
+			final Class<T> eClass = enumClass.isEnum() ? enumClass : (Class<T>) enumClass
+					.getSuperclass();
+			lookupCache.put(enumClass, lookup = new EnumLookup(eClass));
+		}
+		return lookup;
+	}
+
+	private final Class<T> enumClass;
+
+	private final T[] constants;
+
+	private final Map<String, T> names, lowerNames;
+
+	private EnumLookup(final Class<T> enumClass) {
+		this.enumClass = enumClass;
+		constants = enumClass.getEnumConstants();
+		final int n = constants.length * 4 / 3 + 1;
+		names = new HashMap<String, T>(n);
+		lowerNames = new HashMap<String, T>(n);
+		for (final T constant : constants) {
+			final String name = constant.name();
+			names.put(name, constant);
+			final String lower = name.toLowerCase(ENGLISH);
+			if (!lowerNames.containsKey(lower)) {
+				lowerNames.put(lower, constant);
+			}
+		}
+	}
+
+	public Class<T> getEnumClass() {
+		return enumClass;
+	}
+
+	public int size() {
+		return constants.length;
+	}
+
+	/**
+	 * 按名称查找，同Enum.valueOf
+	 *
+	 * @param name
+	 * @return
+	 */
+	public T valueOf(final String name) {
+		return name == null ? null : names.get(name);
+	}
+
+	/**
+	 * 按名称查找，忽略大小写；名称仅大小写不同时取先定义的常量
+	 *
+	 * @param name
+	 * @return
+	 */
+	public T valueOfIgnoreCase(final String name) {
+		if (name == null) {
+			return null;
+		}
+		final T constant = names.get(name);
+		return constant != null ? constant : lowerNames.get(name.toLowerCase(ENGLISH));
+	}
+
+	/**
+	 * 按序号查找，超出范围返回null
+	 *
+	 * @param ordinal
+	 * @return
+	 */
+	public T valueOf(final int ordinal) {
+		return ordinal >= 0 && ordinal < constants.length ? constants[ordinal] : null;
+	}
+}
@@ -1,15 +1,19 @@
 package net.simpleframework.common;
 
+import java.io.IOException;
+import java.text.Format;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.simpleframework.common.ClassUtils.IScanResourcesCallback;
 import net.simpleframework.common.logger.Log;
@@ -45,17 +49,27 @@ public abstract class I18n {
 	// return getCharset(getLocale());
 	// }
 
-	private static HashSet<String> basenames = new HashSet<String>();
+	/**
+	 * 修改时整体替换(copy-on-write)，先加入的优先
+	 */
+	private static volatile Set<String> basenames = Collections.emptySet();
 	static {
 		addBasename(I18n.class);
 	}
 
 	public static void addBasename(final Class<?> pClazz) {
-		basenames.add(pClazz.getPackage().getName() + ".message");
+		addBasename(pClazz.getPackage().getName() + ".message");
 	}
 
 	public static void addBasename(final String name) {
-		basenames.add(name);
+		synchronized (I18n.class) {
+			if (basenames.contains(name)) {
+				return;
+			}
+			final Set<String> s = new LinkedHashSet<String>(basenames);
+			s.add(name);
+			basenames = Collections.unmodifiableSet(s);
+		}
 	}
 
 	public static IScanResourcesCallback getBasenamesCallback() {
@@ -91,79 +105,226 @@ public abstract class I18n {
 	}
 
 	public static String $m(final String code, final Locale locale, final Object... args) {
-		String result = null;
-		for (final String basename : basenames) {
-			final ResourceBundle bundle = getResourceBundle(basename, locale);
-			if (bundle != null) {
-				result = getStringOrNull(bundle, code);
-				if (result != null) {
-					break;
-				}
-			}
+		final Message message = getMessageTable(locale).get(code);
+		if (message == null) {
+			return null;
 		}
-		if (result != null && args != null && args.length > 0) {
-			final MessageFormat format = new MessageFormat(result, locale);
-			result = format.format(args);
+		if (args != null && args.length > 0) {
+			return message.format(locale, args);
 		}
-		return result;
+		return message.text;
 	}
 
-	private static String getStringOrNull(final ResourceBundle bundle, final String key) {
-		try {
-			return bundle.getString(key);
-		} catch (final MissingResourceException ex) {
-			return null;
+	/**
+	 * 各语言的消息表，由所有basename的资源合并而成
+	 */
+	private static final Map<Locale, MessageTable> messageTables = new ConcurrentHashMap<Locale, MessageTable>();
+
+	private static Map<String, Message> getMessageTable(final Locale locale) {
+		final Set<String> names = basenames;
+		MessageTable table = messageTables.get(locale);
+		if (table == null || table.basenames != names) {
+			// 首次使用或basename已变化，重新生成
+			messageTables.put(locale, table = new MessageTable(names, locale));
 		}
+		return table.messages;
 	}
 
-	private static final Map<String, Map<Locale, ResourceBundle>> cachedResourceBundles = new HashMap<String, Map<Locale, ResourceBundle>>();
+	private static class MessageTable {
+		final Set<String> basenames;
+
+		final Map<String, Message> messages = new HashMap<String, Message>();
 
-	private static ResourceBundle getResourceBundle(final String basename, final Locale locale) {
-		synchronized (cachedResourceBundles) {
-			Map<Locale, ResourceBundle> localeMap = cachedResourceBundles.get(basename);
-			if (localeMap != null) {
-				final ResourceBundle bundle = localeMap.get(locale);
-				if (bundle != null) {
-					return bundle;
+		MessageTable(final Set<String> basenames, final Locale locale) {
+			this.basenames = basenames;
+			for (final String basename : basenames) {
+				ResourceBundle bundle;
+				try {
+					bundle = ResourceBundle.getBundle(basename, locale);
+				} catch (final MissingResourceException ex) {
+					continue;
 				}
-			}
-			try {
-				final ResourceBundle bundle = ResourceBundle.getBundle(basename, locale);
-				if (localeMap == null) {
-					cachedResourceBundles.put(basename,
-							localeMap = new HashMap<Locale, ResourceBundle>());
+				for (final String key : bundle.keySet()) {
+					if (!messages.containsKey(key)) {
+						final Object o = bundle.getObject(key);
+						if (o instanceof String) {
+							messages.put(key, new Message((String) o));
+						}
+					}
 				}
-				localeMap.put(locale, bundle);
-				return bundle;
-			} catch (final MissingResourceException ex) {
-				return null;
 			}
 		}
 	}
 
-	private static final Pattern MESSAGE_PATTERN = Pattern
-			.compile("[\\s\\S]*(\\#\\([\\w\\.]+\\))[\\s\\S]*");
+	private static class Message {
+		final String text;
+
+		/**
+		 * 首次带参数调用时解析
+		 */
+		private volatile MessageFormat format;
+
+		/**
+		 * 不含日期、数字等子格式时，MessageFormat可并发使用
+		 */
+		private boolean simple;
 
-	public static String replaceI18n(String template) {
+		Message(final String text) {
+			this.text = text;
+		}
+
+		String format(final Locale locale, final Object[] args) {
+			MessageFormat format = this.format;
+			if (format == null) {
+				format = new MessageFormat(text, locale);
+				boolean b = true;
+				for (final Format f : format.getFormats()) {
+					if (f != null) {
+						b = false;
+						break;
+					}
+				}
+				simple = b;
+				this.format = format;
+			}
+			if (simple) {
+				return format.format(args);
+			}
+			synchronized (format) {
+				return format.format(args);
+			}
+		}
+	}
+
+	public static String replaceI18n(final String template) {
 		if (template == null) {
 			return "";
 		}
-		while (true) {
-			final Matcher matcher = MESSAGE_PATTERN.matcher(template);
-			if (matcher.matches()) {
-				final MatchResult result = matcher.toMatchResult();
-				final String group = result.group(1);
-				Object object = $m(group.substring(2, group.length() - 1));
-				if (object == null) {
-					object = "";
+		if (template.indexOf("#(") < 0) {
+			return template;
+		}
+		final StringBuilder sb = new StringBuilder(template.length() + 64);
+		try {
+			replaceI18n(template, sb);
+		} catch (final IOException e) {
+			// StringBuilder不会抛出
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 一次扫描替换模板中的#(code)，写入out，替换后的内容不再解析
+	 *
+	 * @param template
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void replaceI18n(final CharSequence template, final Appendable out)
+			throws IOException {
+		final int len = template.length();
+		int start = 0;
+		int i = 0;
+		while (i < len) {
+			final int end = codeEnd(template, i);
+			if (end < 0) {
+				i++;
+				continue;
+			}
+			out.append(template, start, i);
+			final String m = $m(template.subSequence(i + 2, end).toString());
+			if (m != null) {
+				out.append(m);
+			}
+			start = i = end + 1;
+		}
+		out.append(template, start, len);
+	}
+
+	/**
+	 * i处为#(code)时返回右括号的位置，否则返回-1
+	 */
+	static int codeEnd(final CharSequence template, final int i) {
+		final int len = template.length();
+		if (template.charAt(i) != '#' || i + 3 >= len || template.charAt(i + 1) != '(') {
+			return -1;
+		}
+		for (int j = i + 2; j < len; j++) {
+			final char c = template.charAt(j);
+			if (c == ')') {
+				return j > i + 2 ? j : -1;
+			}
+			if (!(Character.isLetterOrDigit(c) && c < 128) && c != '_' && c != '.') {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 预编译模板，适用于多次渲染的固定模板
+	 *
+	 * @param template
+	 * @return
+	 */
+	public static I18nTemplate compile(final String template) {
+		return new I18nTemplate(template == null ? "" : template);
+	}
+
+	/**
+	 * 编译后的模板，由静态文本和消息代码交替组成，渲染时只需查找消息并复制。可被多个线程共享
+	 */
+	public static class I18nTemplate {
+		/**
+		 * 偶数位为静态文本，奇数位为消息代码
+		 */
+		private final String[] parts;
+
+		private final int length;
+
+		I18nTemplate(final String template) {
+			final List<String> l = new ArrayList<String>();
+			final int len = template.length();
+			int start = 0;
+			int i = 0;
+			while (i < len) {
+				final int end = codeEnd(template, i);
+				if (end < 0) {
+					i++;
+					continue;
 				}
-				template = template.substring(0, result.start(1)) + object
-						+ template.substring(result.end(1));
-			} else {
-				break;
+				l.add(template.substring(start, i));
+				l.add(template.substring(i + 2, end));
+				start = i = end + 1;
+			}
+			l.add(template.substring(start));
+			parts = l.toArray(new String[l.size()]);
+			length = len;
+		}
+
+		public void render(final Appendable out) throws IOException {
+			for (int i = 0; i < parts.length; i++) {
+				if (i % 2 == 0) {
+					out.append(parts[i]);
+				} else {
+					final String m = $m(parts[i]);
+					if (m != null) {
+						out.append(m);
+					}
+				}
+			}
+		}
+
+		public String render() {
+			if (parts.length == 1) {
+				return parts[0];
+			}
+			final StringBuilder sb = new StringBuilder(length + 64);
+			try {
+				render(sb);
+			} catch (final IOException e) {
 			}
+			return sb.toString();
 		}
-		return template;
 	}
 
 	static Log log = LogFactory.getLogger(I18n.class);
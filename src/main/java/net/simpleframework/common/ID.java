@@ -1,7 +1,11 @@
 package net.simpleframework.common;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.simpleframework.common.object.ObjectUtils;
 
@@ -41,21 +45,179 @@ public abstract class ID {
 		return new StringID(sb.toString());
 	}
 
-	static Object lock = new Object();
+	/**
+	 * 在同一个虚拟机下产生一个唯一的ID，为UidGenerator生成的64位ID的36进制定长字符串
+	 */
+	public static StringID uid() {
+		return new StringID(uidGenerator.nextString());
+	}
+
+	/**
+	 * 产生一个唯一的数字ID，多个节点(nodeId不同)之间也不重复
+	 */
+	public static LongID longUid() {
+		return new LongID(uidGenerator.nextLong());
+	}
+
+	private static volatile UidGenerator uidGenerator = new UidGenerator(UidGenerator.defaultNodeId());
 
-	static long COUNTER = 0;
+	public static UidGenerator getUidGenerator() {
+		return uidGenerator;
+	}
 
 	/**
-	 * 在同一个虚拟机下产生一个唯一的ID，其格式为[time] - [counter]
+	 * 设置集群中的节点号，0-1023，各节点须不同
+	 * 
+	 * @param nodeId
 	 */
-	public static StringID uid() {
-		final long time = System.currentTimeMillis();
-		long id;
-		synchronized (lock) {
-			id = COUNTER++;
+	public static void setNodeId(final int nodeId) {
+		uidGenerator = new UidGenerator(nodeId);
+	}
+
+	/**
+	 * 无锁的唯一ID生成器，64位布局为[41位毫秒时间][10位节点][12位序号]，同一节点内单调递增
+	 * 
+	 * 系统时钟回拨时休眠等待，回拨过多(超出预借时间加最长等待时间)时抛出IllegalStateException
+	 */
+	public static class UidGenerator {
+		/**
+		 * 时间起点 2014-01-01 00:00:00 UTC
+		 */
+		public static final long EPOCH = 1388534400000L;
+
+		static final int NODE_BITS = 10, SEQUENCE_BITS = 12;
+
+		static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+		static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+		/**
+		 * 定长字符串的长度，保证字符串顺序与数值顺序一致
+		 */
+		static final int STRING_LENGTH = 13;
+
+		/**
+		 * 允许预借的最长时间(毫秒)
+		 */
+		static final long MAX_AHEAD = 1000;
+
+		/**
+		 * 时钟回拨时最长的等待时间(毫秒)，超过则抛出异常
+		 */
+		static final long MAX_WAIT = 5000;
+
+		private final long nodeId;
+
+		/**
+		 * [时间][序号]，序号溢出时进位到时间，即预借下一毫秒
+		 */
+		private final AtomicLong state = new AtomicLong();
+
+		public UidGenerator(final int nodeId) {
+			if (nodeId < 0 || nodeId > MAX_NODE) {
+				throw new IllegalArgumentException("nodeId: " + nodeId);
+			}
+			this.nodeId = nodeId;
+		}
+
+		public long getNodeId() {
+			return nodeId;
+		}
+
+		public long nextLong() {
+			return toId(reserve0(1));
+		}
+
+		public LongID nextId() {
+			return new LongID(nextLong());
+		}
+
+		public String nextString() {
+			return toString(nextLong());
+		}
+
+		/**
+		 * 批量预留n个ID，用于批量插入
+		 * 
+		 * @param n
+		 * @return
+		 */
+		public long[] reserve(final int n) {
+			final long[] ids = new long[n];
+			if (n > 0) {
+				final long first = reserve0(n);
+				for (int i = 0; i < n; i++) {
+					ids[i] = toId(first + i);
+				}
+			}
+			return ids;
+		}
+
+		private long reserve0(final int n) {
+			long waited = 0, backoff = 1;
+			while (true) {
+				final long now = System.currentTimeMillis() - EPOCH;
+				final long prev = state.get();
+				final long start = Math.max(prev, now << SEQUENCE_BITS);
+				final long ahead = (start >>> SEQUENCE_BITS) - now - MAX_AHEAD;
+				if (ahead > 0) {
+					// 预借时间过多(或系统时钟回拨)，休眠等待时钟追上，等不到则抛出异常
+					if (waited + ahead > MAX_WAIT) {
+						throw new IllegalStateException("Clock moved backwards, "
+								+ (ahead + MAX_AHEAD) + "ms behind the last id");
+					}
+					final long millis = Math.min(ahead, backoff);
+					try {
+						Thread.sleep(millis);
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException(e);
+					}
+					waited += millis;
+					backoff = Math.min(backoff << 1, 100);
+					continue;
+				}
+				if (state.compareAndSet(prev, start + n)) {
+					return start;
+				}
+			}
+		}
+
+		private long toId(final long s) {
+			return ((s >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS)
+					| (s & SEQUENCE_MASK);
+		}
+
+		public static long getTime(final long id) {
+			return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+		}
+
+		public static String toString(final long id) {
+			final String s = Long.toString(id, Character.MAX_RADIX);
+			if (s.length() >= STRING_LENGTH) {
+				return s;
+			}
+			final StringBuilder sb = new StringBuilder(STRING_LENGTH);
+			for (int i = s.length(); i < STRING_LENGTH; i++) {
+				sb.append('0');
+			}
+			return sb.append(s).toString();
+		}
+
+		static int defaultNodeId() {
+			try {
+				final byte[] mac = IoUtils.getMacAddressBytes();
+				if (mac != null && mac.length > 0) {
+					int h = 0;
+					for (final byte b : mac) {
+						h = h * 31 + (b & 0xff);
+					}
+					return (int) ((h ^ (h >>> 10) ^ (h >>> 20)) & MAX_NODE);
+				}
+			} catch (final Throwable e) {
+			}
+			return new Random().nextInt((int) MAX_NODE + 1);
 		}
-		return new StringID(Long.toString(time, Character.MAX_RADIX)
-				+ Long.toString(id, Character.MAX_RADIX));
 	}
 
 	/**
@@ -85,11 +247,12 @@ public abstract class ID {
 			if (!(obj instanceof ID)) {
 				return false;
 			}
+			final Object id1 = getValue();
 			final Object id2 = ((ID) obj).getValue();
-			if (id instanceof Number && id2 instanceof Number) {
-				return ((Number) id).longValue() == ((Number) id2).longValue();
+			if (id1 instanceof Number && id2 instanceof Number) {
+				return ((Number) id1).longValue() == ((Number) id2).longValue();
 			} else {
-				return ObjectUtils.objectEquals(id, id2);
+				return ObjectUtils.objectEquals(id1, id2);
 			}
 		}
 
@@ -100,7 +263,9 @@ public abstract class ID {
 
 		@Override
 		public int compareTo(final AbstractID<T> o) {
-			return id != null && o.id != null ? id.compareTo(o.id) : 0;
+			final T id1 = getValue();
+			final T id2 = o.getValue();
+			return id1 != null && id2 != null ? id1.compareTo(id2) : 0;
 		}
 	}
 
@@ -112,21 +277,132 @@ public abstract class ID {
 		private static final long serialVersionUID = 8283766253505696610L;
 	}
 
+	/**
+	 * 以基本类型int保存，避免装箱
+	 */
 	public static class IntegerID extends AbstractID<Integer> {
+		private int iid;
 
 		public IntegerID(final int id) {
-			this.id = id;
+			this.iid = id;
+		}
+
+		public int intValue() {
+			return iid;
+		}
+
+		@Override
+		public Integer getValue() {
+			return iid;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash(iid);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj instanceof IntegerID) {
+				return iid == ((IntegerID) obj).iid;
+			} else if (obj instanceof LongID) {
+				return iid == ((LongID) obj).lid;
+			}
+			return super.equals(obj);
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(iid);
+		}
+
+		@Override
+		public int compareTo(final AbstractID<Integer> o) {
+			if (o instanceof IntegerID) {
+				final int iid2 = ((IntegerID) o).iid;
+				return iid < iid2 ? -1 : (iid == iid2 ? 0 : 1);
+			}
+			return super.compareTo(o);
+		}
+
+		private void readObject(final ObjectInputStream in) throws IOException,
+				ClassNotFoundException {
+			in.defaultReadObject();
+			// 兼容旧的序列化数据
+			if (id != null) {
+				iid = id;
+				id = null;
+			}
 		}
 
 		private static final long serialVersionUID = 8864098349861539868L;
 	}
 
+	/**
+	 * 以基本类型long保存，避免装箱
+	 */
 	public static class LongID extends AbstractID<Long> {
+		private long lid;
 
 		public LongID(final long id) {
-			this.id = id;
+			this.lid = id;
+		}
+
+		public long longValue() {
+			return lid;
+		}
+
+		@Override
+		public Long getValue() {
+			return lid;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash(lid);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj instanceof LongID) {
+				return lid == ((LongID) obj).lid;
+			} else if (obj instanceof IntegerID) {
+				return lid == ((IntegerID) obj).iid;
+			}
+			return super.equals(obj);
+		}
+
+		@Override
+		public String toString() {
+			return Long.toString(lid);
+		}
+
+		@Override
+		public int compareTo(final AbstractID<Long> o) {
+			if (o instanceof LongID) {
+				final long lid2 = ((LongID) o).lid;
+				return lid < lid2 ? -1 : (lid == lid2 ? 0 : 1);
+			}
+			return super.compareTo(o);
+		}
+
+		private void readObject(final ObjectInputStream in) throws IOException,
+				ClassNotFoundException {
+			in.defaultReadObject();
+			// 兼容旧的序列化数据
+			if (id != null) {
+				lid = id;
+				id = null;
+			}
 		}
 
 		private static final long serialVersionUID = 4193421687986152568L;
 	}
+
+	/**
+	 * IntegerID与LongID值相同时hash一致
+	 */
+	static int hash(final long v) {
+		return (int) (v ^ (v >>> 32));
+	}
 }
@@ -2,21 +2,35 @@ package net.simpleframework.common;
 
 import static net.simpleframework.lib.net.minidev.json.parser.JSONParser.DEFAULT_PERMISSIVE_MODE;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import net.simpleframework.common.coll.AbstractKVMap;
+import net.simpleframework.common.logger.Log;
+import net.simpleframework.common.logger.LogFactory;
 import net.simpleframework.lib.net.minidev.asm.BeansAccess;
 import net.simpleframework.lib.net.minidev.json.JSONArray;
+import net.simpleframework.lib.net.minidev.json.JSONAware;
 import net.simpleframework.lib.net.minidev.json.JSONObject;
+import net.simpleframework.lib.net.minidev.json.JSONStreamAware;
 import net.simpleframework.lib.net.minidev.json.JSONStyle;
 import net.simpleframework.lib.net.minidev.json.JSONUtil;
 import net.simpleframework.lib.net.minidev.json.JSONValue;
 import net.simpleframework.lib.net.minidev.json.mapper.AMapper;
 import net.simpleframework.lib.net.minidev.json.mapper.Mapper;
+import net.simpleframework.lib.net.minidev.json.parser.JSONArrayReader;
 import net.simpleframework.lib.net.minidev.json.parser.JSONParser;
-import net.simpleframework.lib.net.minidev.json.parser.ParseException;
 
 /**
  * Licensed under the Apache License, Version 2.0
@@ -44,13 +58,234 @@ public abstract class JsonUtils {
 		return sb.toString();
 	}
 
+	/**
+	 * 将对象直接写入out，bean按BeanUtils的属性读取(与BeanUtils.toMap一致)，不生成中间的Map及字符串
+	 *
+	 * ID写入其值，Enum写入名称，Version写入字符串；Map、Iterable及数组中的元素同样处理
+	 *
+	 * @param value
+	 * @param out
+	 * @param style
+	 * @throws IOException
+	 */
+	@SuppressWarnings("rawtypes")
+	public static void writeJSON(final Object value, final Appendable out, final JSONStyle style)
+			throws IOException {
+		if (value == null) {
+			out.append("null");
+		} else if (value instanceof String || value instanceof Number || value instanceof Boolean
+				|| value instanceof Date || value instanceof Enum || value instanceof JSONAware
+				|| value instanceof JSONStreamAware) {
+			JSONValue.writeJSONString(value, out, style);
+		} else if (value instanceof ID) {
+			writeJSON(((ID) value).getValue(), out, style);
+		} else if (value instanceof Version) {
+			JSONValue.writeJSONString(value.toString(), out, style);
+		} else if (value instanceof AbstractKVMap) {
+			writeJSON(((AbstractKVMap) value).map(), out, style);
+		} else if (value instanceof Map) {
+			out.append('{');
+			boolean first = true;
+			for (final Object o : ((Map) value).entrySet()) {
+				final Map.Entry e = (Map.Entry) o;
+				if (first) {
+					first = false;
+				} else {
+					out.append(',');
+				}
+				writeKey(e.getKey() == null ? null : e.getKey().toString(), out, style);
+				writeJSON(e.getValue(), out, style);
+			}
+			out.append('}');
+		} else if (value instanceof Iterable) {
+			out.append('[');
+			boolean first = true;
+			for (final Object o : (Iterable) value) {
+				if (first) {
+					first = false;
+				} else {
+					out.append(',');
+				}
+				writeJSON(o, out, style);
+			}
+			out.append(']');
+		} else if (value instanceof Object[]) {
+			out.append('[');
+			final Object[] arr = (Object[]) value;
+			for (int i = 0; i < arr.length; i++) {
+				if (i > 0) {
+					out.append(',');
+				}
+				writeJSON(arr[i], out, style);
+			}
+			out.append(']');
+		} else if (value.getClass().isArray() || value instanceof Character) {
+			JSONValue.writeJSONString(value, out, style);
+		} else {
+			final BeanAccessor accessor = BeanAccessor.get(value.getClass());
+			out.append('{');
+			final int n = accessor.size();
+			for (int i = 0; i < n; i++) {
+				if (i > 0) {
+					out.append(',');
+				}
+				writeKey(accessor.getName(i), out, style);
+				writeJSON(accessor.get(value, i), out, style);
+			}
+			out.append('}');
+		}
+	}
+
+	public static void writeJSON(final Object value, final Appendable out) throws IOException {
+		writeJSON(value, out, JSONValue.COMPRESSION);
+	}
+
+	/**
+	 * 以UTF-8写入out，写完后flush，不关闭out
+	 *
+	 * @param value
+	 * @param out
+	 * @param style
+	 * @throws IOException
+	 */
+	public static void writeJSON(final Object value, final OutputStream out, final JSONStyle style)
+			throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		writeJSON(value, writer, style);
+		writer.flush();
+	}
+
+	private static void writeKey(final String key, final Appendable out, final JSONStyle style)
+			throws IOException {
+		if (key == null) {
+			out.append("null");
+		} else if (!style.mustProtectKey(key)) {
+			out.append(key);
+		} else {
+			out.append('"');
+			JSONValue.escape(key, out, style);
+			out.append('"');
+		}
+		out.append(':');
+	}
+
 	/*-------------------------------json-to-bean-------------------------------*/
 
+	static Log log = LogFactory.getLogger(JsonUtils.class);
+
+	/**
+	 * 每个线程缓存一个解析器，解析器非线程安全；嵌套调用时缓存的解析器正在使用，另行创建
+	 */
+	private static ThreadLocal<JSONParser> parsers = new ThreadLocal<JSONParser>();
+
+	private static JSONParser acquireParser() {
+		final JSONParser parser = parsers.get();
+		if (parser == null) {
+			return new JSONParser(DEFAULT_PERMISSIVE_MODE);
+		}
+		parsers.set(null);
+		return parser;
+	}
+
+	/**
+	 * 解析json，json为String或UTF-8编码的byte[]，出错时记录日志并返回null
+	 *
+	 * @param json
+	 * @param mapper
+	 * @return
+	 */
+	private static <T> T parse(final Object json, final AMapper<T> mapper) {
+		final JSONParser parser = acquireParser();
+		try {
+			if (json instanceof byte[]) {
+				return parser.parse((byte[]) json, mapper);
+			}
+			return parser.parse((String) json, mapper);
+		} catch (final Exception e) {
+			log.warn(e);
+			return null;
+		} finally {
+			parsers.set(parser);
+		}
+	}
+
+	/**
+	 * 取buffer中position至limit的字节，可能时直接使用其数组，不改变buffer的position
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	private static byte[] getBytes(final ByteBuffer buffer) {
+		if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+				&& buffer.limit() == buffer.array().length) {
+			return buffer.array();
+		}
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * 读取全部字节，不关闭in
+	 *
+	 * 内置的流解析器按单字节读取且不解码UTF-8，所以读入后按byte[]解析
+	 *
+	 * @param in
+	 * @return
+	 */
+	private static byte[] getBytes(final InputStream in) {
+		if (in == null) {
+			return null;
+		}
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			IoUtils.copyStream(in, out);
+		} catch (final IOException e) {
+			log.warn(e);
+			return null;
+		}
+		return out.toByteArray();
+	}
+
+	private static boolean hasText(final byte[] json) {
+		if (json == null) {
+			return false;
+		}
+		for (final byte b : json) {
+			if (b < 0 || b > ' ') {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public static <T> T toObject(final String json, final Class<T> valueType) {
 		if (!StringUtils.hasText(json)) {
 			return null;
 		}
-		return JSONValue.parse(json, valueType);
+		return parse(json, Mapper.getMapper(valueType));
+	}
+
+	/**
+	 * 解析UTF-8编码的json，不转换为String
+	 *
+	 * @param json
+	 * @param valueType
+	 * @return
+	 */
+	public static <T> T toObject(final byte[] json, final Class<T> valueType) {
+		if (!hasText(json)) {
+			return null;
+		}
+		return parse(json, Mapper.getMapper(valueType));
+	}
+
+	public static <T> T toObject(final ByteBuffer json, final Class<T> valueType) {
+		return json == null ? null : toObject(getBytes(json), valueType);
+	}
+
+	public static <T> T toObject(final InputStream json, final Class<T> valueType) {
+		return toObject(getBytes(json), valueType);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -58,21 +293,76 @@ public abstract class JsonUtils {
 		return toObject(json, Map.class);
 	}
 
+	@SuppressWarnings("unchecked")
+	public static Map<String, ?> toMap(final byte[] json) {
+		return toObject(json, Map.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static Map<String, ?> toMap(final ByteBuffer json) {
+		return toObject(json, Map.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static Map<String, ?> toMap(final InputStream json) {
+		return toObject(json, Map.class);
+	}
+
 	public static Collection<?> toList(final String json) {
 		return toList(json, null);
 	}
 
 	public static List<?> toList(final String json, final Class<?> beanClass) {
-		if (beanClass == null) {
-			return JSONValue.parse(json, List.class);
+		if (json == null) {
+			return null;
 		}
-		try {
-			return new JSONParser(DEFAULT_PERMISSIVE_MODE).parse(json, new ListMapper<List<?>>(
-					beanClass));
-		} catch (final ParseException e) {
-			e.printStackTrace();
+		return parse(json, createListMapper(beanClass));
+	}
+
+	public static List<?> toList(final byte[] json, final Class<?> beanClass) {
+		if (json == null) {
 			return null;
 		}
+		return parse(json, createListMapper(beanClass));
+	}
+
+	public static List<?> toList(final ByteBuffer json, final Class<?> beanClass) {
+		return json == null ? null : toList(getBytes(json), beanClass);
+	}
+
+	public static List<?> toList(final InputStream json, final Class<?> beanClass) {
+		return toList(getBytes(json), beanClass);
+	}
+
+	/**
+	 * 逐个读取json数组的元素，适用于很大的数组，不将全部元素读入内存；用完后需关闭
+	 *
+	 * @param json
+	 * @param beanClass
+	 * @return
+	 */
+	public static <T> JSONArrayReader<T> toIterator(final Reader json, final Class<T> beanClass) {
+		return new JSONArrayReader<T>(json, beanClass);
+	}
+
+	/**
+	 * 同toIterator(Reader, Class)，json为UTF-8编码
+	 *
+	 * @param json
+	 * @param beanClass
+	 * @return
+	 */
+	public static <T> JSONArrayReader<T> toIterator(final InputStream json,
+			final Class<T> beanClass) {
+		return new JSONArrayReader<T>(json, beanClass);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static AMapper<List<?>> createListMapper(final Class<?> beanClass) {
+		if (beanClass == null) {
+			return (AMapper<List<?>>) (AMapper<?>) Mapper.getMapper(List.class);
+		}
+		return new ListMapper<List<?>>(beanClass);
 	}
 
 	public static class ListMapper<T> extends AMapper<T> {
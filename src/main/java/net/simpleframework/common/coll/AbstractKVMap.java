@@ -4,7 +4,6 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -34,7 +33,7 @@ public abstract class AbstractKVMap<T, M extends AbstractKVMap<T, M>> implements
 	}
 
 	protected Map<String, T> create(final int initialCapacity) {
-		return new LinkedHashMap<String, T>(initialCapacity);
+		return new CompactMap<T>(initialCapacity);
 	}
 
 	public M add(final String key, final T value) {
@@ -66,7 +65,10 @@ public abstract class AbstractKVMap<T, M extends AbstractKVMap<T, M>> implements
 	}
 
 	public M setCaseInsensitive(final boolean caseInsensitive) {
-		if (caseInsensitive) {
+		if (kv instanceof CompactMap) {
+			// CompactMap自身支持忽略大小写，无需维护key的映射
+			((CompactMap<T>) kv).setCaseInsensitive(caseInsensitive);
+		} else if (caseInsensitive) {
 			caseInsensitiveKeys = new HashMap<String, String>();
 		}
 		this.caseInsensitive = caseInsensitive;
@@ -0,0 +1,268 @@
+package net.simpleframework.common.coll;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+import net.simpleframework.common.Convert;
+import net.simpleframework.common.ID;
+import net.simpleframework.common.ID.IntegerID;
+import net.simpleframework.common.ID.LongID;
+
+/**
+ * 以long为key的开放寻址(线性探测)哈希表，key以基本类型保存，不产生装箱对象
+ *
+ * 0作为空槽标记，key为0时单独保存
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+abstract class AbstractLongHash {
+	private static final float LOAD_FACTOR = .6f;
+
+	/**
+	 * 堆外存储的最大槽数
+	 */
+	private static final int MAX_DIRECT_CAPACITY = 1 << 28;
+
+	private final boolean offHeap;
+
+	LongStore keys;
+
+	/**
+	 * 值，为null表示只保存key
+	 */
+	Object[] values;
+
+	int mask, size, threshold;
+
+	boolean hasZero;
+
+	Object zeroValue;
+
+	AbstractLongHash(final int expectedSize, final boolean offHeap, final boolean withValues) {
+		this.offHeap = offHeap;
+		int capacity = 8;
+		while (capacity * LOAD_FACTOR < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity, withValues);
+	}
+
+	private void allocate(final int capacity, final boolean withValues) {
+		if (offHeap && capacity > MAX_DIRECT_CAPACITY) {
+			throw new IllegalStateException("Capacity exceeds the off-heap limit: " + capacity);
+		}
+		keys = offHeap ? new DirectStore(capacity) : new HeapStore(capacity);
+		values = withValues ? new Object[capacity] : null;
+		mask = capacity - 1;
+		threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	static int mix(final long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return (int) (h ^ (h >>> 16));
+	}
+
+	/**
+	 * ID转换为long，非数字ID按值转换
+	 */
+	static long toKey(final ID id) {
+		if (id instanceof LongID) {
+			return ((LongID) id).longValue();
+		} else if (id instanceof IntegerID) {
+			return ((IntegerID) id).intValue();
+		}
+		return Convert.toLong(id.getValue());
+	}
+
+	/**
+	 * key所在的槽，不存在返回-1
+	 */
+	int indexOf(final long key) {
+		int i = mix(key) & mask;
+		long k;
+		while ((k = keys.get(i)) != 0) {
+			if (k == key) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * 插入key，返回所在的槽；原来不存在时返回-(槽+1)
+	 */
+	int insert(final long key) {
+		int i = mix(key) & mask;
+		long k;
+		while ((k = keys.get(i)) != 0) {
+			if (k == key) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		keys.set(i, key);
+		if (++size > threshold) {
+			rehash((mask + 1) << 1);
+			return -(indexOf(key) + 1);
+		}
+		return -(i + 1);
+	}
+
+	/**
+	 * 删除槽i，后续同簇的元素前移(backward shift)，不留墓碑
+	 */
+	void removeAt(int i) {
+		size--;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			final long k = keys.get(j);
+			if (k == 0) {
+				break;
+			}
+			final int h = mix(k) & mask;
+			// h不在(i, j]区间内时，j处的元素可前移到i
+			if (i <= j ? (h <= i || h > j) : (h <= i && h > j)) {
+				keys.set(i, k);
+				if (values != null) {
+					values[i] = values[j];
+				}
+				i = j;
+			}
+		}
+		keys.set(i, 0);
+		if (values != null) {
+			values[i] = null;
+		}
+	}
+
+	private void rehash(final int capacity) {
+		final LongStore oKeys = keys;
+		final Object[] oValues = values;
+		final int oCapacity = mask + 1;
+		allocate(capacity, oValues != null);
+		for (int j = 0; j < oCapacity; j++) {
+			final long k = oKeys.get(j);
+			if (k != 0) {
+				int i = mix(k) & mask;
+				while (keys.get(i) != 0) {
+					i = (i + 1) & mask;
+				}
+				keys.set(i, k);
+				if (oValues != null) {
+					values[i] = oValues[j];
+				}
+			}
+		}
+	}
+
+	public void clear() {
+		keys.clear();
+		if (values != null) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = null;
+			}
+		}
+		size = 0;
+		hasZero = false;
+		zeroValue = null;
+	}
+
+	public long[] keys() {
+		final long[] arr = new long[size];
+		int j = 0;
+		if (hasZero) {
+			arr[j++] = 0;
+		}
+		final int capacity = mask + 1;
+		for (int i = 0; i < capacity; i++) {
+			final long k = keys.get(i);
+			if (k != 0) {
+				arr[j++] = k;
+			}
+		}
+		return arr;
+	}
+
+	static abstract class LongStore {
+
+		abstract long get(int i);
+
+		abstract void set(int i, long v);
+
+		abstract void clear();
+	}
+
+	static class HeapStore extends LongStore {
+		private final long[] arr;
+
+		HeapStore(final int capacity) {
+			arr = new long[capacity];
+		}
+
+		@Override
+		long get(final int i) {
+			return arr[i];
+		}
+
+		@Override
+		void set(final int i, final long v) {
+			arr[i] = v;
+		}
+
+		@Override
+		void clear() {
+			for (int i = 0; i < arr.length; i++) {
+				arr[i] = 0;
+			}
+		}
+	}
+
+	/**
+	 * 堆外存储，内存随对象回收释放
+	 */
+	static class DirectStore extends LongStore {
+		private final LongBuffer buf;
+
+		DirectStore(final int capacity) {
+			buf = ByteBuffer.allocateDirect(capacity << 3).order(ByteOrder.nativeOrder())
+					.asLongBuffer();
+		}
+
+		@Override
+		long get(final int i) {
+			return buf.get(i);
+		}
+
+		@Override
+		void set(final int i, final long v) {
+			buf.put(i, v);
+		}
+
+		@Override
+		void clear() {
+			final int capacity = buf.capacity();
+			for (int i = 0; i < capacity; i++) {
+				buf.put(i, 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,411 @@
+package net.simpleframework.common.coll;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 以String为key、按插入顺序排列的紧凑Map
+ *
+ * key、value及hash保存在平坦数组中，数量较少时顺序查找，较多时使用开放寻址(线性探测)的下标表；
+ * 可设置为忽略key的大小写，此时保留首次插入的key。非线程安全
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class CompactMap<V> extends AbstractMap<String, V> implements Serializable {
+	/**
+	 * 不超过该数量时不建下标表
+	 */
+	private static final int LINEAR_MAX = 8;
+
+	private String[] keys;
+
+	private Object[] values;
+
+	private int[] hashes;
+
+	/**
+	 * 下标表，保存条目位置+1，0为空槽
+	 */
+	private int[] table;
+
+	private int size;
+
+	private boolean caseInsensitive;
+
+	private transient int modCount;
+
+	public CompactMap(final int initialCapacity) {
+		final int capacity = Math.max(initialCapacity, 2);
+		keys = new String[capacity];
+		values = new Object[capacity];
+		hashes = new int[capacity];
+	}
+
+	public CompactMap() {
+		this(8);
+	}
+
+	public boolean isCaseInsensitive() {
+		return caseInsensitive;
+	}
+
+	/**
+	 * 设置是否忽略key的大小写；改为忽略时，仅大小写不同的key合并为首个key，值取后插入的
+	 *
+	 * @param caseInsensitive
+	 * @return
+	 */
+	public CompactMap<V> setCaseInsensitive(final boolean caseInsensitive) {
+		if (this.caseInsensitive == caseInsensitive) {
+			return this;
+		}
+		this.caseInsensitive = caseInsensitive;
+		final String[] oKeys = keys;
+		final Object[] oValues = values;
+		final int oSize = size;
+		size = 0;
+		table = null;
+		keys = new String[oKeys.length];
+		values = new Object[oKeys.length];
+		hashes = new int[oKeys.length];
+		for (int i = 0; i < oSize; i++) {
+			put0(oKeys[i], oValues[i]);
+		}
+		modCount++;
+		return this;
+	}
+
+	private int hash(final String key) {
+		if (key == null) {
+			return 0;
+		}
+		if (!caseInsensitive) {
+			return key.hashCode();
+		}
+		int h = 0;
+		final int len = key.length();
+		for (int i = 0; i < len; i++) {
+			char c = key.charAt(i);
+			if (c < 128) {
+				if (c >= 'A' && c <= 'Z') {
+					c += 32;
+				}
+			} else {
+				// 与equalsIgnoreCase的比较方式一致
+				c = Character.toLowerCase(Character.toUpperCase(c));
+			}
+			h = 31 * h + c;
+		}
+		return h;
+	}
+
+	private boolean keyEquals(final String k1, final String k2) {
+		if (k1 == k2) {
+			return true;
+		}
+		if (k1 == null || k2 == null) {
+			return false;
+		}
+		return caseInsensitive ? k1.equalsIgnoreCase(k2) : k1.equals(k2);
+	}
+
+	private static int mix(final int h) {
+		return h ^ (h >>> 16);
+	}
+
+	private int indexOf(final Object key) {
+		if (key != null && !(key instanceof String)) {
+			return -1;
+		}
+		final String k = (String) key;
+		final int h = hash(k);
+		if (table == null) {
+			for (int i = 0; i < size; i++) {
+				if (hashes[i] == h && keyEquals(keys[i], k)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		final int mask = table.length - 1;
+		int slot = mix(h) & mask;
+		int p;
+		while ((p = table[slot]) != 0) {
+			final int i = p - 1;
+			if (hashes[i] == h && keyEquals(keys[i], k)) {
+				return i;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private Object put0(final String key, final Object value) {
+		final int i = indexOf(key);
+		if (i >= 0) {
+			final Object old = values[i];
+			values[i] = value;
+			return old;
+		}
+		if (size == keys.length) {
+			grow();
+		}
+		final int h = hash(key);
+		keys[size] = key;
+		values[size] = value;
+		hashes[size] = h;
+		size++;
+		if (table != null) {
+			index(size - 1);
+		} else if (size > LINEAR_MAX) {
+			rebuildTable();
+		}
+		return null;
+	}
+
+	private void grow() {
+		final int capacity = keys.length << 1;
+		final String[] nKeys = new String[capacity];
+		final Object[] nValues = new Object[capacity];
+		final int[] nHashes = new int[capacity];
+		System.arraycopy(keys, 0, nKeys, 0, size);
+		System.arraycopy(values, 0, nValues, 0, size);
+		System.arraycopy(hashes, 0, nHashes, 0, size);
+		keys = nKeys;
+		values = nValues;
+		hashes = nHashes;
+		if (table != null) {
+			rebuildTable();
+		}
+	}
+
+	private void rebuildTable() {
+		if (size <= LINEAR_MAX) {
+			table = null;
+			return;
+		}
+		// 装载因子不超过0.5
+		int n = 16;
+		while (n < keys.length << 1) {
+			n <<= 1;
+		}
+		table = new int[n];
+		for (int i = 0; i < size; i++) {
+			index(i);
+		}
+	}
+
+	private void index(final int i) {
+		final int mask = table.length - 1;
+		int slot = mix(hashes[i]) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = i + 1;
+	}
+
+	private void removeAt(final int i) {
+		final int n = size - i - 1;
+		if (n > 0) {
+			System.arraycopy(keys, i + 1, keys, i, n);
+			System.arraycopy(values, i + 1, values, i, n);
+			System.arraycopy(hashes, i + 1, hashes, i, n);
+		}
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		if (table != null) {
+			rebuildTable();
+		}
+		modCount++;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(final String key, final V value) {
+		final int oSize = size;
+		final V old = (V) put0(key, value);
+		if (size != oSize) {
+			modCount++;
+		}
+		return old;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(final Object key) {
+		final int i = indexOf(key);
+		return i >= 0 ? (V) values[i] : null;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(final Object value) {
+		for (int i = 0; i < size; i++) {
+			final Object v = values[i];
+			if (v == value || (v != null && v.equals(value))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(final Object key) {
+		final int i = indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		final V old = (V) values[i];
+		removeAt(i);
+		return old;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			keys[i] = null;
+			values[i] = null;
+		}
+		size = 0;
+		table = null;
+		modCount++;
+	}
+
+	private transient Set<Map.Entry<String, V>> entrySet;
+
+	@Override
+	public Set<Map.Entry<String, V>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Map.Entry<String, V>>() {
+				@Override
+				public Iterator<Map.Entry<String, V>> iterator() {
+					return new EntryIterator();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+
+				@Override
+				public void clear() {
+					CompactMap.this.clear();
+				}
+			};
+		}
+		return entrySet;
+	}
+
+	private class EntryIterator implements Iterator<Map.Entry<String, V>> {
+		private int next, last = -1;
+
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return next < size;
+		}
+
+		@Override
+		public Map.Entry<String, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next >= size) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			return new Entry(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	private class Entry implements Map.Entry<String, V> {
+		private final int i;
+
+		Entry(final int i) {
+			this.i = i;
+		}
+
+		@Override
+		public String getKey() {
+			return keys[i];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V getValue() {
+			return (V) values[i];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public V setValue(final V value) {
+			final V old = (V) values[i];
+			values[i] = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			final Map.Entry<?, ?> e = (Map.Entry<?, ?>) obj;
+			final Object k = getKey(), v = getValue();
+			return (k == null ? e.getKey() == null : k.equals(e.getKey()))
+					&& (v == null ? e.getValue() == null : v.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			final Object k = getKey(), v = getValue();
+			return (k == null ? 0 : k.hashCode()) ^ (v == null ? 0 : v.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	private static final long serialVersionUID = -2953287102914763410L;
+}
@@ -0,0 +1,432 @@
+package net.simpleframework.common.coll;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 线程安全的LRU缓存
+ *
+ * 按key的hash分段加锁，每段维护自己的访问顺序，淘汰为近似的全局LRU。支持数量、权重上限及存活时间，并统计命中、未命中及淘汰次数
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class ConcurrentLRUCache<K, V> {
+
+	private final Segment<K, V>[] segments;
+
+	private final int segmentMask;
+
+	private final int maxEntries;
+
+	private long maxWeight;
+
+	private IWeigher<K, V> weigher;
+
+	/**
+	 * 存活时间，毫秒，0表示不过期
+	 */
+	private long timeToLive;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	public ConcurrentLRUCache(final int maxEntries) {
+		this(maxEntries, 16);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ConcurrentLRUCache(final int maxEntries, final int concurrencyLevel) {
+		this.maxEntries = maxEntries;
+		// 每段至少容纳8个，避免小容量时分段过细
+		final int level = Math.max(1, Math.min(concurrencyLevel, maxEntries / 8));
+		int n = 1;
+		while (n < level) {
+			n <<= 1;
+		}
+		segments = new Segment[n];
+		for (int i = 0; i < n; i++) {
+			segments[i] = new Segment<K, V>();
+			segments[i].maxSize = (int) share(maxEntries, i);
+		}
+		segmentMask = n - 1;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * 设置权重上限，0表示不限制
+	 *
+	 * @param maxWeight
+	 * @param weigher
+	 * @return
+	 */
+	public ConcurrentLRUCache<K, V> setMaxWeight(final long maxWeight, final IWeigher<K, V> weigher) {
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		for (int i = 0; i < segments.length; i++) {
+			segments[i].maxWeight = share(maxWeight, i);
+		}
+		return this;
+	}
+
+	/**
+	 * 第i段分得的上限，余数分给前面的段，各段之和等于total
+	 */
+	private long share(final long total, final int i) {
+		if (total <= 0) {
+			return 0;
+		}
+		final int n = segments.length;
+		return Math.max(total / n + (i < total % n ? 1 : 0), 1);
+	}
+
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	public ConcurrentLRUCache<K, V> setTimeToLive(final long timeToLive) {
+		this.timeToLive = timeToLive;
+		return this;
+	}
+
+	private Segment<K, V> segmentFor(final Object key) {
+		int h = key == null ? 0 : key.hashCode();
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return segments[h & segmentMask];
+	}
+
+	public V get(final Object key) {
+		final Segment<K, V> segment = segmentFor(key);
+		V v = null;
+		segment.lock();
+		try {
+			final CacheEntry<V> entry = segment.map.get(key);
+			if (entry != null) {
+				if (entry.isExpired()) {
+					segment.remove(key);
+					evictionCount.incrementAndGet();
+				} else {
+					v = entry.value;
+				}
+			}
+		} finally {
+			segment.unlock();
+		}
+		(v != null ? hitCount : missCount).incrementAndGet();
+		return v;
+	}
+
+	public boolean containsKey(final Object key) {
+		final Segment<K, V> segment = segmentFor(key);
+		segment.lock();
+		try {
+			final CacheEntry<V> entry = segment.map.get(key);
+			return entry != null && !entry.isExpired();
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	public V put(final K key, final V value) {
+		return put(key, value, false);
+	}
+
+	public V putIfAbsent(final K key, final V value) {
+		return put(key, value, true);
+	}
+
+	private V put(final K key, final V value, final boolean onlyIfAbsent) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		final Segment<K, V> segment = segmentFor(key);
+		segment.lock();
+		try {
+			final CacheEntry<V> old = segment.map.get(key);
+			if (old != null && !old.isExpired() && onlyIfAbsent) {
+				return old.value;
+			}
+			final int weight = weigher != null ? weigher.weigh(key, value) : 1;
+			segment.put(key, new CacheEntry<V>(value, weight, timeToLive > 0 ? System
+					.currentTimeMillis() + timeToLive : 0));
+			evict(segment);
+			return old != null && !old.isExpired() ? old.value : null;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	private void evict(final Segment<K, V> segment) {
+		final int maxSize = segment.maxSize;
+		final long maxW = segment.maxWeight;
+		final Iterator<Map.Entry<K, CacheEntry<V>>> it = segment.map.entrySet().iterator();
+		while (it.hasNext()
+				&& ((maxSize > 0 && segment.map.size() > maxSize) || (maxW > 0 && segment.weight > maxW))) {
+			final Map.Entry<K, CacheEntry<V>> eldest = it.next();
+			it.remove();
+			segment.weight -= eldest.getValue().weight;
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	public V remove(final Object key) {
+		final Segment<K, V> segment = segmentFor(key);
+		segment.lock();
+		try {
+			final CacheEntry<V> entry = segment.remove(key);
+			return entry != null && !entry.isExpired() ? entry.value : null;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	/**
+	 * 当前值等于value时才删除
+	 *
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public boolean remove(final Object key, final Object value) {
+		final Segment<K, V> segment = segmentFor(key);
+		segment.lock();
+		try {
+			final CacheEntry<V> entry = segment.map.get(key);
+			if (entry != null && !entry.isExpired() && entry.value.equals(value)) {
+				segment.remove(key);
+				return true;
+			}
+			return false;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	/**
+	 * 当前值等于oldValue时才替换，oldValue为null表示只要存在即替换
+	 *
+	 * @param key
+	 * @param oldValue
+	 * @param newValue
+	 * @return 被替换的值
+	 */
+	public V replace(final K key, final V oldValue, final V newValue) {
+		if (newValue == null) {
+			throw new NullPointerException();
+		}
+		final Segment<K, V> segment = segmentFor(key);
+		segment.lock();
+		try {
+			final CacheEntry<V> entry = segment.map.get(key);
+			if (entry == null || entry.isExpired()
+					|| (oldValue != null && !entry.value.equals(oldValue))) {
+				return null;
+			}
+			put(key, newValue, false);
+			return entry.value;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (final Segment<K, V> segment : segments) {
+			segment.lock();
+			try {
+				size += segment.map.size();
+			} finally {
+				segment.unlock();
+			}
+		}
+		return size;
+	}
+
+	public void clear() {
+		for (final Segment<K, V> segment : segments) {
+			segment.lock();
+			try {
+				segment.map.clear();
+				segment.weight = 0;
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 当前未过期数据的快照，按段内从旧到新排列
+	 *
+	 * @return
+	 */
+	public List<Map.Entry<K, V>> entries() {
+		final List<Map.Entry<K, V>> l = new ArrayList<Map.Entry<K, V>>();
+		for (final Segment<K, V> segment : segments) {
+			segment.lock();
+			try {
+				for (final Map.Entry<K, CacheEntry<V>> e : segment.map.entrySet()) {
+					final CacheEntry<V> entry = e.getValue();
+					if (!entry.isExpired()) {
+						l.add(new KVEntry<K, V>(e.getKey(), entry.value));
+					}
+				}
+			} finally {
+				segment.unlock();
+			}
+		}
+		return l;
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	public double getHitRate() {
+		final long hit = getHitCount();
+		final long total = hit + getMissCount();
+		return total == 0 ? 1d : (double) hit / total;
+	}
+
+	public void resetStats() {
+		hitCount.set(0);
+		missCount.set(0);
+		evictionCount.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size() + ", hit=" + getHitCount() + ", miss=" + getMissCount()
+				+ ", eviction=" + getEvictionCount();
+	}
+
+	public static interface IWeigher<K, V> {
+
+		/**
+		 * 计算缓存项的权重
+		 *
+		 * @param key
+		 * @param value
+		 * @return
+		 */
+		int weigh(K key, V value);
+	}
+
+	private static class Segment<K, V> extends ReentrantLock {
+		final LinkedHashMap<K, CacheEntry<V>> map = new LinkedHashMap<K, CacheEntry<V>>(16, .75f,
+				true);
+
+		long weight;
+
+		int maxSize;
+
+		long maxWeight;
+
+		void put(final K key, final CacheEntry<V> entry) {
+			final CacheEntry<V> old = map.put(key, entry);
+			if (old != null) {
+				weight -= old.weight;
+			}
+			weight += entry.weight;
+		}
+
+		CacheEntry<V> remove(final Object key) {
+			final CacheEntry<V> old = map.remove(key);
+			if (old != null) {
+				weight -= old.weight;
+			}
+			return old;
+		}
+
+		private static final long serialVersionUID = 5207829234977119743L;
+	}
+
+	private static class CacheEntry<V> {
+		final V value;
+
+		final int weight;
+
+		final long expireTime;
+
+		CacheEntry(final V value, final int weight, final long expireTime) {
+			this.value = value;
+			this.weight = weight;
+			this.expireTime = expireTime;
+		}
+
+		boolean isExpired() {
+			return expireTime > 0 && System.currentTimeMillis() > expireTime;
+		}
+	}
+
+	private static class KVEntry<K, V> implements Map.Entry<K, V> {
+		private final K key;
+
+		private final V value;
+
+		KVEntry(final K key, final V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(final V value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			final Map.Entry<?, ?> e = (Map.Entry<?, ?>) obj;
+			return (key == null ? e.getKey() == null : key.equals(e.getKey()))
+					&& (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+}
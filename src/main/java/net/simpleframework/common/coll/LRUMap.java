@@ -1,22 +1,156 @@
 package net.simpleframework.common.coll;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.LinkedHashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
-public class LRUMap<K, V> extends LinkedHashMap<K, V> implements Serializable {
+/**
+ * 线程安全的LRU Map，基于ConcurrentLRUCache实现，可直接作为多线程共享的缓存
+ * 
+ * 不支持null值：put(key, null)等同于remove(key)，不会保存null值(原基于LinkedHashMap的实现可保存)
+ * 
+ * 序列化格式与原LinkedHashMap实现不兼容，serialVersionUID已更换，旧版本序列化的数据不能读入
+ * 
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class LRUMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V>, Serializable {
 
 	private final int maxEntries;
 
+	private transient ConcurrentLRUCache<K, V> cache;
+
 	public LRUMap(final int maxEntries) {
-		super(maxEntries, .75f, true);
 		this.maxEntries = maxEntries;
+		cache = new ConcurrentLRUCache<K, V>(maxEntries);
+	}
+
+	public ConcurrentLRUCache<K, V> getCache() {
+		return cache;
+	}
+
+	@Override
+	public V get(final Object key) {
+		return cache.get(key);
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return cache.containsKey(key);
+	}
+
+	@Override
+	public V put(final K key, final V value) {
+		if (value == null) {
+			return cache.remove(key);
+		}
+		return cache.put(key, value);
+	}
+
+	@Override
+	public V putIfAbsent(final K key, final V value) {
+		return cache.putIfAbsent(key, value);
+	}
+
+	@Override
+	public V remove(final Object key) {
+		return cache.remove(key);
+	}
+
+	@Override
+	public boolean remove(final Object key, final Object value) {
+		return cache.remove(key, value);
 	}
 
 	@Override
-	protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
-		return (size() > maxEntries);
+	public boolean replace(final K key, final V oldValue, final V newValue) {
+		if (oldValue == null) {
+			throw new NullPointerException();
+		}
+		return cache.replace(key, oldValue, newValue) != null;
+	}
+
+	@Override
+	public V replace(final K key, final V value) {
+		return cache.replace(key, null, value);
+	}
+
+	@Override
+	public int size() {
+		return cache.size();
+	}
+
+	@Override
+	public void clear() {
+		cache.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				final Iterator<Map.Entry<K, V>> it = cache.entries().iterator();
+				return new Iterator<Map.Entry<K, V>>() {
+					private Map.Entry<K, V> current;
+
+					@Override
+					public boolean hasNext() {
+						return it.hasNext();
+					}
+
+					@Override
+					public Map.Entry<K, V> next() {
+						return current = it.next();
+					}
+
+					@Override
+					public void remove() {
+						if (current == null) {
+							throw new IllegalStateException();
+						}
+						cache.remove(current.getKey());
+						current = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return cache.size();
+			}
+		};
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		final List<Map.Entry<K, V>> entries = cache.entries();
+		out.writeInt(entries.size());
+		for (final Map.Entry<K, V> e : entries) {
+			out.writeObject(e.getKey());
+			out.writeObject(e.getValue());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		cache = new ConcurrentLRUCache<K, V>(maxEntries);
+		final int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			cache.put((K) in.readObject(), (V) in.readObject());
+		}
 	}
 
-	private static final long serialVersionUID = -4468453950954557286L;
+	private static final long serialVersionUID = 2391067207218520383L;
 }
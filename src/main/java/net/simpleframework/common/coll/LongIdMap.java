@@ -0,0 +1,118 @@
+package net.simpleframework.common.coll;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.simpleframework.common.ID;
+
+/**
+ * 以数字ID为key的Map，key以基本类型long保存。适合在内存中保存大量实体ID
+ * 
+ * 非线程安全
+ * 
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+@SuppressWarnings("unchecked")
+public class LongIdMap<V> extends AbstractLongHash {
+
+	public LongIdMap() {
+		this(16);
+	}
+
+	public LongIdMap(final int expectedSize) {
+		this(expectedSize, false);
+	}
+
+	/**
+	 * @param expectedSize
+	 * @param offHeap
+	 *        key是否保存在堆外内存中
+	 */
+	public LongIdMap(final int expectedSize, final boolean offHeap) {
+		super(expectedSize, offHeap, true);
+	}
+
+	public V get(final long key) {
+		if (key == 0) {
+			return hasZero ? (V) zeroValue : null;
+		}
+		final int i = indexOf(key);
+		return i < 0 ? null : (V) values[i];
+	}
+
+	public V get(final ID id) {
+		return id == null ? null : get(toKey(id));
+	}
+
+	public boolean containsKey(final long key) {
+		return key == 0 ? hasZero : indexOf(key) >= 0;
+	}
+
+	public boolean containsKey(final ID id) {
+		return id != null && containsKey(toKey(id));
+	}
+
+	public V put(final long key, final V value) {
+		if (key == 0) {
+			final V old = (V) zeroValue;
+			if (!hasZero) {
+				hasZero = true;
+				size++;
+			}
+			zeroValue = value;
+			return old;
+		}
+		final int i = insert(key);
+		if (i < 0) {
+			values[-i - 1] = value;
+			return null;
+		}
+		final V old = (V) values[i];
+		values[i] = value;
+		return old;
+	}
+
+	public V put(final ID id, final V value) {
+		return put(toKey(id), value);
+	}
+
+	public V remove(final long key) {
+		if (key == 0) {
+			if (!hasZero) {
+				return null;
+			}
+			final V old = (V) zeroValue;
+			hasZero = false;
+			zeroValue = null;
+			size--;
+			return old;
+		}
+		final int i = indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		final V old = (V) values[i];
+		removeAt(i);
+		return old;
+	}
+
+	public V remove(final ID id) {
+		return id == null ? null : remove(toKey(id));
+	}
+
+	public List<V> values() {
+		final List<V> l = new ArrayList<V>(size);
+		if (hasZero) {
+			l.add((V) zeroValue);
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (keys.get(i) != 0) {
+				l.add((V) values[i]);
+			}
+		}
+		return l;
+	}
+}
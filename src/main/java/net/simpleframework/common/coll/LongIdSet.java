@@ -0,0 +1,78 @@
+package net.simpleframework.common.coll;
+
+import net.simpleframework.common.ID;
+
+/**
+ * 数字ID的集合，以基本类型long保存。适合在内存中保存大量实体ID
+ * 
+ * 非线程安全
+ * 
+ * Licensed under the Apache License, Version 2.0
+ * 
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class LongIdSet extends AbstractLongHash {
+
+	public LongIdSet() {
+		this(16);
+	}
+
+	public LongIdSet(final int expectedSize) {
+		this(expectedSize, false);
+	}
+
+	/**
+	 * @param expectedSize
+	 * @param offHeap
+	 *        是否保存在堆外内存中
+	 */
+	public LongIdSet(final int expectedSize, final boolean offHeap) {
+		super(expectedSize, offHeap, false);
+	}
+
+	public boolean contains(final long key) {
+		return key == 0 ? hasZero : indexOf(key) >= 0;
+	}
+
+	public boolean contains(final ID id) {
+		return id != null && contains(toKey(id));
+	}
+
+	public boolean add(final long key) {
+		if (key == 0) {
+			if (hasZero) {
+				return false;
+			}
+			hasZero = true;
+			size++;
+			return true;
+		}
+		return insert(key) < 0;
+	}
+
+	public boolean add(final ID id) {
+		return add(toKey(id));
+	}
+
+	public boolean remove(final long key) {
+		if (key == 0) {
+			if (!hasZero) {
+				return false;
+			}
+			hasZero = false;
+			size--;
+			return true;
+		}
+		final int i = indexOf(key);
+		if (i < 0) {
+			return false;
+		}
+		removeAt(i);
+		return true;
+	}
+
+	public boolean remove(final ID id) {
+		return id != null && remove(toKey(id));
+	}
+}
@@ -0,0 +1,23 @@
+package net.simpleframework.common.object;
+
+import java.lang.reflect.Method;
+
+/**
+ * 由IMethodInterceptor选择实现，声明需要拦截的方法
+ *
+ * 生成代理类时据此建立每个方法的拦截器表，不被任何拦截器接受的方法直接调用父类，不经过拦截
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public interface IMethodFilter {
+
+	/**
+	 *
+	 * @param method
+	 * @return
+	 */
+	boolean accept(Method method);
+}
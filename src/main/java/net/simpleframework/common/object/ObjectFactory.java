@@ -1,10 +1,12 @@
 package net.simpleframework.common.object;
 
 import java.lang.reflect.Modifier;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.simpleframework.common.ClassUtils;
 
@@ -57,30 +59,164 @@ public class ObjectFactory {
 		return this;
 	}
 
-	private final Set<IObjectCreatorListener> listeners = new HashSet<IObjectCreatorListener>();
+	private final Set<IObjectCreatorListener> listeners = new CopyOnWriteArraySet<IObjectCreatorListener>();
 
 	public ObjectFactory addListener(final IObjectCreatorListener listener) {
 		listeners.add(listener);
 		return this;
 	}
 
+	/**
+	 * 每个类一个构造锁，慢的构造不会阻塞其它类
+	 */
+	private final ConcurrentMap<Class<?>, Object> singletonLocks = new ConcurrentHashMap<Class<?>, Object>();
+
+	/**
+	 * 正在构造的单例及其构造线程
+	 */
+	private final ConcurrentMap<Class<?>, Thread> constructing = new ConcurrentHashMap<Class<?>, Thread>();
+
+	/**
+	 * 线程正在等待其构造锁的单例
+	 */
+	private final ConcurrentMap<Thread, Class<?>> waiting = new ConcurrentHashMap<Thread, Class<?>>();
+
+	private volatile boolean collectStatistics;
+
+	private final AtomicLong singletonHits = new AtomicLong();
+
+	private final AtomicLong singletonCreates = new AtomicLong();
+
+	private final AtomicLong singletonContentions = new AtomicLong();
+
+	private final AtomicLong singletonWaitNanos = new AtomicLong();
+
+	/**
+	 * 单例的构造中又依赖其它单例时，若形成循环(本线程或多个线程间，如A的构造需要B，B的构造又需要A)，
+	 * 抛出ObjectInstanceException，而不是无限递归或死锁
+	 */
 	@SuppressWarnings("unchecked")
 	private <T> T _singleton(final Class<T> oClass) {
 		if (oClass == null) {
 			return null;
 		}
-		synchronized (singletonCache) {
-			T o = (T) singletonCache.get(oClass);
-			if (o == null) {
-				o = _create(oClass);
+		T o = (T) singletonCache.get(oClass);
+		if (o != null) {
+			if (collectStatistics) {
+				singletonHits.incrementAndGet();
+			}
+			return o;
+		}
+
+		Object lock = singletonLocks.get(oClass);
+		if (lock == null) {
+			final Object lock2 = singletonLocks.putIfAbsent(oClass, lock = new Object());
+			if (lock2 != null) {
+				lock = lock2;
+			}
+		}
+		final Thread current = Thread.currentThread();
+		// 先登记等待，再检查循环，并发形成的循环至少由其中一个线程发现
+		waiting.put(current, oClass);
+		try {
+			checkCircular(oClass, current);
+			final long start = System.nanoTime();
+			synchronized (lock) {
+				waiting.remove(current);
+				o = (T) singletonCache.get(oClass);
+				if (o != null) {
+					// 等待了其它线程的构造
+					if (collectStatistics) {
+						singletonContentions.incrementAndGet();
+						singletonWaitNanos.addAndGet(System.nanoTime() - start);
+					}
+					return o;
+				}
+				constructing.put(oClass, current);
+				try {
+					o = _create(oClass);
+				} finally {
+					constructing.remove(oClass);
+				}
 				if (o != null) {
 					singletonCache.put(oClass, o);
+					if (collectStatistics) {
+						singletonCreates.incrementAndGet();
+					}
 				}
+				return o;
 			}
-			return o;
+		} finally {
+			waiting.remove(current);
+		}
+	}
+
+	private void checkCircular(final Class<?> oClass, final Thread current) {
+		Class<?> c = oClass;
+		for (int i = 0; c != null && i <= waiting.size(); i++) {
+			final Thread owner = constructing.get(c);
+			if (owner == null) {
+				return;
+			}
+			if (owner == current) {
+				throw ObjectInstanceException.of("Circular singleton construction: "
+						+ oClass.getName());
+			}
+			c = waiting.get(owner);
 		}
 	}
 
+	public boolean isCollectStatistics() {
+		return collectStatistics;
+	}
+
+	/**
+	 * 是否统计单例的命中、创建及等待，默认不统计，避免在命中路径上争用计数器
+	 * 
+	 * @param collectStatistics
+	 * @return
+	 */
+	public ObjectFactory setCollectStatistics(final boolean collectStatistics) {
+		this.collectStatistics = collectStatistics;
+		return this;
+	}
+
+	/**
+	 * 单例缓存命中次数
+	 * 
+	 * @return
+	 */
+	public long getSingletonHitCount() {
+		return singletonHits.get();
+	}
+
+	/**
+	 * 单例创建次数
+	 * 
+	 * @return
+	 */
+	public long getSingletonCreateCount() {
+		return singletonCreates.get();
+	}
+
+	/**
+	 * 因其它线程正在构造同一单例而等待的次数
+	 * 
+	 * @return
+	 */
+	public long getSingletonContentionCount() {
+		return singletonContentions.get();
+	}
+
+	/**
+	 * 等待的总时间，纳秒
+	 * 
+	 * @return
+	 */
+	public long getSingletonWaitNanos() {
+		return singletonWaitNanos.get();
+	}
+
 	private Object _singleton(final String className) {
 		try {
 			return _singleton(ClassUtils.forName(className));
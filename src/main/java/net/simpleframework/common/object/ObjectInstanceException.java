@@ -17,5 +17,9 @@ public class ObjectInstanceException extends RuntimeExceptionEx {
 		return _of(ObjectInstanceException.class, null, throwable);
 	}
 
+	public static RuntimeException of(final String msg) {
+		return _of(ObjectInstanceException.class, msg);
+	}
+
 	private static final long serialVersionUID = -4969137027259374957L;
 }
@@ -2,38 +2,63 @@ package net.simpleframework.common.object;
 
 import static net.simpleframework.common.I18n.$m;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import net.simpleframework.common.ClassUtils;
-import net.simpleframework.common.coll.ArrayUtils;
+import net.simpleframework.common.logger.Log;
+import net.simpleframework.common.logger.LogFactory;
+import net.simpleframework.lib.net.sf.cglib.proxy.Callback;
+import net.simpleframework.lib.net.sf.cglib.proxy.CallbackFilter;
 import net.simpleframework.lib.net.sf.cglib.proxy.Enhancer;
+import net.simpleframework.lib.net.sf.cglib.proxy.Factory;
 import net.simpleframework.lib.net.sf.cglib.proxy.MethodInterceptor;
 import net.simpleframework.lib.net.sf.cglib.proxy.MethodProxy;
+import net.simpleframework.lib.net.sf.cglib.proxy.NoOp;
+import net.simpleframework.lib.net.sf.cglib.reflect.FastClass;
+import net.simpleframework.lib.net.sf.cglib.reflect.FastMethod;
 
 /**
  * Licensed under the Apache License, Version 2.0
- * 
+ *
  * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
  *         http://www.simpleframework.net
  */
 public abstract class ProxyUtils {
+	static Log log = LogFactory.getLogger(ProxyUtils.class);
 
+	/**
+	 * 注册的拦截器，修改时整体替换(copy-on-write)，调用时无需加锁
+	 */
 	private static Map<Class<?>, Map<Class<?>, IMethodInterceptor>> registryCache;
+
+	/**
+	 * 已生成的代理类，与生成时的拦截器集合对应
+	 */
+	private static Map<Class<?>, ProxyClass> proxyCache;
 	static {
 		registryCache = new ConcurrentHashMap<Class<?>, Map<Class<?>, IMethodInterceptor>>();
+		proxyCache = new ConcurrentHashMap<Class<?>, ProxyClass>();
 	}
 
 	public static void regist(final Class<?> oClass, final IMethodInterceptor interceptor) {
-		Map<Class<?>, IMethodInterceptor> interceptors = registryCache.get(oClass);
-		if (interceptors == null) {
-			registryCache.put(oClass, interceptors = new HashMap<Class<?>, IMethodInterceptor>());
+		synchronized (registryCache) {
+			final Map<Class<?>, IMethodInterceptor> interceptors = new LinkedHashMap<Class<?>, IMethodInterceptor>();
+			final Map<Class<?>, IMethodInterceptor> old = registryCache.get(oClass);
+			if (old != null) {
+				interceptors.putAll(old);
+			}
+			interceptors.put(interceptor.getClass(), interceptor);
+			registryCache.put(oClass, Collections.unmodifiableMap(interceptors));
 		}
-		interceptors.put(interceptor.getClass(), interceptor);
 	}
 
 	public static boolean isRegistered(final Class<?> oClass,
@@ -47,24 +72,22 @@ public abstract class ProxyUtils {
 		if (interceptors == null || interceptors.size() == 0) {
 			return ObjectFactory.newInstance(oClass);
 		}
-		final Enhancer enhancer = new Enhancer();
-		enhancer.setSuperclass(oClass);
-		enhancer.setCallback(new MethodInterceptor() {
-			@Override
-			public Object intercept(final Object obj, final Method method, final Object[] args,
-					final MethodProxy proxy) throws Throwable {
-				for (final IMethodInterceptor interceptor : interceptors.values()) {
-					final MethodResult ret = interceptor.intercept(obj, method, args, proxy);
-					if (ret.isSuccess()) {
-						return ret.getValue();
-					}
-				}
-				return proxy.invokeSuper(obj, args);
+		final ProxyClass pc = proxyCache.get(oClass);
+		if (pc != null && pc.interceptors == interceptors) {
+			return pc.newInstance();
+		}
+		synchronized (proxyCache) {
+			ProxyClass pc2 = proxyCache.get(oClass);
+			if (pc2 != null && pc2.interceptors == interceptors) {
+				return pc2.newInstance();
 			}
-		});
-		final Object o = enhancer.create();
-		System.out.println($m("ProxyUtils.0", o.getClass().getName()));
-		return o;
+			// 首次创建或拦截器已变化，重新生成代理类
+			pc2 = new ProxyClass(interceptors);
+			final Object o = pc2.create(oClass);
+			proxyCache.put(oClass, pc2);
+			log.info($m("ProxyUtils.0", o.getClass().getName()));
+			return o;
+		}
 	}
 
 	public static void registDefaults(final Class<?> oClass) {
@@ -85,37 +108,155 @@ public abstract class ProxyUtils {
 		}
 	}
 
-	static class DefaultMethodInterceptor implements IMethodInterceptor {
+	private static final IMethodInterceptor[] NO_INTERCEPTORS = new IMethodInterceptor[0];
+
+	/**
+	 * 代理类及其方法的拦截器表
+	 *
+	 * 没有拦截器的方法通过NoOp直接调用父类，其余方法只调用接受它的拦截器
+	 */
+	private static class ProxyClass implements CallbackFilter, MethodInterceptor {
+		final Map<Class<?>, IMethodInterceptor> interceptors;
+
+		private final Map<Method, IMethodInterceptor[]> dispatch = new ConcurrentHashMap<Method, IMethodInterceptor[]>();
+
+		private final Callback[] callbacks = new Callback[] { NoOp.INSTANCE, this };
+
+		private Factory factory;
+
+		ProxyClass(final Map<Class<?>, IMethodInterceptor> interceptors) {
+			this.interceptors = interceptors;
+		}
+
+		Object create(final Class<?> oClass) {
+			final Enhancer enhancer = new Enhancer();
+			enhancer.setSuperclass(oClass);
+			enhancer.setCallbackFilter(this);
+			enhancer.setCallbacks(callbacks);
+			enhancer.setUseCache(false);
+			final Object o = enhancer.create();
+			factory = (Factory) o;
+			return o;
+		}
+
+		Object newInstance() {
+			return factory.newInstance(callbacks);
+		}
+
+		private IMethodInterceptor[] lookup(final Method method) {
+			IMethodInterceptor[] arr = dispatch.get(method);
+			if (arr == null) {
+				final List<IMethodInterceptor> l = new ArrayList<IMethodInterceptor>();
+				for (final IMethodInterceptor interceptor : interceptors.values()) {
+					if (!(interceptor instanceof IMethodFilter)
+							|| ((IMethodFilter) interceptor).accept(method)) {
+						l.add(interceptor);
+					}
+				}
+				arr = l.isEmpty() ? NO_INTERCEPTORS : l.toArray(new IMethodInterceptor[l.size()]);
+				dispatch.put(method, arr);
+			}
+			return arr;
+		}
+
+		@Override
+		public int accept(final Method method) {
+			return lookup(method).length == 0 ? 0 : 1;
+		}
+
+		@Override
+		public Object intercept(final Object obj, final Method method, final Object[] args,
+				final MethodProxy proxy) throws Throwable {
+			for (final IMethodInterceptor interceptor : lookup(method)) {
+				final MethodResult ret = interceptor.intercept(obj, method, args, proxy);
+				if (ret.isSuccess()) {
+					return ret.getValue();
+				}
+			}
+			return proxy.invokeSuper(obj, args);
+		}
+	}
+
+	static class DefaultMethodInterceptor implements IMethodInterceptor, IMethodFilter {
 		private final List<Object[]> list = new ArrayList<Object[]>();
 
+		/**
+		 * 方法对应的实现，NONE表示不覆盖
+		 */
+		private final Map<Method, Invoker> invokers = new ConcurrentHashMap<Method, Invoker>();
+
 		DefaultMethodInterceptor(final Class<?>[] intfs) {
 			for (final Class<?> intf : intfs) {
 				final MethodOverride mo = intf.getAnnotation(MethodOverride.class);
 				if (mo != null) {
-					list.add(new Object[] { ObjectFactory.create(mo.impl()), mo.methods() });
+					final Set<String> methods = new HashSet<String>();
+					Collections.addAll(methods, mo.methods());
+					list.add(new Object[] { ObjectFactory.create(mo.impl()), methods });
 				}
 			}
 		}
 
+		@SuppressWarnings("unchecked")
+		private Object getImpl(final String name) {
+			for (final Object[] arr : list) {
+				if (((Set<String>) arr[1]).contains(name)) {
+					return arr[0];
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public boolean accept(final Method method) {
+			return getImpl(method.getName()) != null;
+		}
+
 		@Override
 		public MethodResult intercept(final Object obj, final Method method, final Object[] args,
 				final MethodProxy proxy) throws Throwable {
-			for (final Object[] arr : list) {
-				final String[] methods = (String[]) arr[1];
-				final String name = method.getName();
-				if (ArrayUtils.contains(methods, name)) {
-					final Object o = arr[0];
-					Method nMethod;
-					try {
-						nMethod = o.getClass().getMethod(name, method.getParameterTypes());
-					} catch (final NoSuchMethodException e) {
-						nMethod = method;
-						nMethod.setAccessible(true);
-					}
-					return new MethodResult(nMethod.invoke(o, args));
-				}
+			Invoker invoker = invokers.get(method);
+			if (invoker == null) {
+				final Object o = getImpl(method.getName());
+				invokers.put(method, invoker = o != null ? new Invoker(o, method) : Invoker.NONE);
+			}
+			if (invoker == Invoker.NONE) {
+				return MethodResult.FAILURE;
+			}
+			return new MethodResult(invoker.invoke(args));
+		}
+	}
+
+	static class Invoker {
+		static final Invoker NONE = new Invoker();
+
+		private Object o;
+
+		private FastMethod fMethod;
+
+		private Method method;
+
+		private Invoker() {
+		}
+
+		Invoker(final Object o, final Method method) {
+			this.o = o;
+			final Class<?> oClass = o.getClass();
+			try {
+				fMethod = FastClass.create(oClass).getMethod(
+						oClass.getMethod(method.getName(), method.getParameterTypes()));
+			} catch (final Exception e) {
+				// 实现类无此方法或无法生成FastClass时反射调用
+				this.method = method;
+				method.setAccessible(true);
+			}
+		}
+
+		Object invoke(final Object[] args) throws Throwable {
+			try {
+				return fMethod != null ? fMethod.invoke(o, args) : method.invoke(o, args);
+			} catch (final InvocationTargetException e) {
+				throw e.getTargetException();
 			}
-			return MethodResult.FAILURE;
 		}
 	}
 
@@ -0,0 +1,178 @@
+package net.simpleframework.lib.net.minidev.json.parser;
+
+/*
+ *    Copyright 2011 JSON-SMART authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.simpleframework.lib.net.minidev.json.JSONUtil;
+import net.simpleframework.lib.net.minidev.json.mapper.AMapper;
+import net.simpleframework.lib.net.minidev.json.mapper.DefaultMapper;
+import net.simpleframework.lib.net.minidev.json.mapper.Mapper;
+
+/**
+ * Pull reader for a top level JSON array: elements are parsed one at a time
+ * from the Reader, so only the current element is kept in memory.
+ *
+ * Objects and arrays are built by the element mapper (a BeansMapper when
+ * created with a class, JSONObject / JSONArray by default). Please note that
+ * JSONArrayReader is NOT thread-safe.
+ *
+ * Iterator methods wrap ParseException and IOException in a RuntimeException,
+ * use hasNextElement / nextElement to get them as checked exceptions.
+ */
+public class JSONArrayReader<T> implements Iterator<T>, Closeable {
+	private final JSONParserReader parser;
+
+	private final Reader in;
+
+	private final AMapper<?> container;
+
+	private final Class<?> mapTo;
+
+	/**
+	 * 0 not started, 1 an element is ready to be read, 2 element read, 3 end
+	 */
+	private int state;
+
+	private int index = -1;
+
+	public JSONArrayReader(final Reader in, final AMapper<T> mapper) {
+		this(in, mapper, null, JSONParser.DEFAULT_PERMISSIVE_MODE);
+	}
+
+	public JSONArrayReader(final Reader in, final Class<T> mapTo) {
+		this(in, Mapper.getMapper(mapTo), mapTo, JSONParser.DEFAULT_PERMISSIVE_MODE);
+	}
+
+	/**
+	 * the stream is decoded as UTF-8
+	 */
+	public JSONArrayReader(final InputStream in, final Class<T> mapTo) {
+		this(utf8(in), mapTo);
+	}
+
+	JSONArrayReader(final Reader in, final AMapper<?> mapper, final Class<?> mapTo,
+			final int permissiveMode) {
+		this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+		this.mapTo = mapTo;
+		container = new ElementMapper(mapper != null ? mapper : DefaultMapper.DEFAULT);
+		parser = new JSONParserReader(permissiveMode);
+		parser.setInput(this.in);
+	}
+
+	private static Reader utf8(final InputStream in) {
+		try {
+			return new InputStreamReader(in, "UTF-8");
+		} catch (final UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the index of the last element returned, -1 if none
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public boolean hasNextElement() throws ParseException, IOException {
+		if (state == 0) {
+			parser.startArray();
+			state = 2;
+		}
+		if (state == 2) {
+			state = parser.nextElement() ? 1 : 3;
+		}
+		return state == 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T nextElement() throws ParseException, IOException {
+		if (!hasNextElement()) {
+			throw new NoSuchElementException();
+		}
+		Object value = parser.readElement(container);
+		state = 2;
+		index++;
+		if (value != null && mapTo != null && !mapTo.isInstance(value)) {
+			value = JSONUtil.convertToX(value, mapTo);
+		}
+		return (T) value;
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			return hasNextElement();
+		} catch (final ParseException e) {
+			throw new RuntimeException(e);
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public T next() {
+		try {
+			return nextElement();
+		} catch (final ParseException e) {
+			throw new RuntimeException(e);
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close() throws IOException {
+		state = 3;
+		in.close();
+	}
+
+	/**
+	 * container of the top level array, give the element mapper to each
+	 * object or array
+	 */
+	private static class ElementMapper extends AMapper<Object> {
+		private final AMapper<?> mapper;
+
+		ElementMapper(final AMapper<?> mapper) {
+			this.mapper = mapper;
+		}
+
+		@Override
+		public AMapper<?> startObject(final String key) {
+			return mapper;
+		}
+
+		@Override
+		public AMapper<?> startArray(final String key) {
+			return mapper;
+		}
+	}
+}
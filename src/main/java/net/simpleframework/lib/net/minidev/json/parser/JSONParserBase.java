@@ -281,6 +281,80 @@ abstract class JSONParserBase {
 		}
 	}
 
+	/*
+	 * Step by step reading of a top level array, used by JSONArrayReader
+	 */
+	private boolean needData;
+
+	/**
+	 * start reading, the input must be an array
+	 */
+	void startArray() throws ParseException, IOException {
+		this.pos = -1;
+		read();
+		while (c == ' ' || c == '\r' || c == '\n' || c == '\t') {
+			read();
+		}
+		if (c != '[') {
+			if (c == EOI) {
+				throw new ParseException(pos - 1, ERROR_UNEXPECTED_EOF, "EOF");
+			}
+			throw new ParseException(pos, ERROR_UNEXPECTED_CHAR, c);
+		}
+		read();
+		needData = false;
+	}
+
+	/**
+	 * move to the first char of the next element, same rules as readArray
+	 * 
+	 * @return false if the end of the array is reached
+	 */
+	boolean nextElement() throws ParseException, IOException {
+		for (;;) {
+			switch (c) {
+			case ' ':
+			case '\r':
+			case '\n':
+			case '\t':
+				read();
+				continue;
+			case ']':
+				if (needData && !acceptUselessComma) {
+					throw new ParseException(pos, ERROR_UNEXPECTED_CHAR, c);
+				}
+				read(); /* unstack */
+				xs = null;
+				xo = null;
+				return false;
+			case ':':
+			case '}':
+				throw new ParseException(pos, ERROR_UNEXPECTED_CHAR, c);
+			case ',':
+				if (needData && !acceptUselessComma) {
+					throw new ParseException(pos, ERROR_UNEXPECTED_CHAR, c);
+				}
+				read();
+				needData = true;
+				continue;
+			case EOI:
+				throw new ParseException(pos - 1, ERROR_UNEXPECTED_EOF, "EOF");
+			default:
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * read the element found by nextElement, objects and arrays are created by
+	 * mapper.startObject / mapper.startArray
+	 */
+	Object readElement(final AMapper<?> mapper) throws ParseException, IOException {
+		final Object value = readMain(mapper, stopArray);
+		needData = false;
+		return value;
+	}
+
 	/**
 	 * use to return Primitive Type, or String, Or JsonObject or JsonArray
 	 * generated by a ContainerFactory
@@ -16,6 +16,9 @@ package net.simpleframework.lib.net.minidev.json.parser;
  * limitations under the License.
  */
 import static net.simpleframework.lib.net.minidev.json.parser.ParseException.ERROR_UNEXPECTED_EOF;
+
+import java.nio.charset.Charset;
+
 import net.simpleframework.lib.net.minidev.json.mapper.AMapper;
 import net.simpleframework.lib.net.minidev.json.mapper.DefaultMapper;
 
@@ -25,8 +28,20 @@ import net.simpleframework.lib.net.minidev.json.mapper.DefaultMapper;
  * @author Uriel Chemouni <uchemouni@gmail.com>
  */
 class JSONParserByteArray extends JSONParserMemory {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
 	private byte[] in;
 
+	/**
+	 * pending low surrogate of a 4 bytes UTF-8 sequence, 0 if none
+	 */
+	private char low;
+
+	/**
+	 * index of the first byte of the current char
+	 */
+	private int charStart;
+
 	public JSONParserByteArray(final int permissiveMode) {
 		super(permissiveMode);
 	}
@@ -54,30 +69,32 @@ class JSONParserByteArray extends JSONParserMemory {
 	public <T> T parse(final byte[] in, final AMapper<T> mapper) throws ParseException {
 		this.in = in;
 		this.len = in.length;
+		this.low = 0;
+		this.charStart = -1;
 		return parse(mapper);
 	}
 
 	@Override
 	protected void extractString(final int beginIndex, final int endIndex) {
-		xs = new String(in, beginIndex, endIndex - beginIndex);
+		xs = new String(in, beginIndex, endIndex - beginIndex, UTF8);
 	}
 
 	@Override
 	protected void extractStringTrim(int start, int stop) {
 		final byte[] val = this.in; /* avoid getfield opcode */
 
-		while ((start < stop) && (val[start] <= ' ')) {
+		while ((start < stop) && (val[start] >= 0) && (val[start] <= ' ')) {
 			start++;
 		}
-		while ((start < stop) && (val[stop - 1] <= ' ')) {
+		while ((start < stop) && (val[stop - 1] >= 0) && (val[stop - 1] <= ' ')) {
 			stop--;
 		}
-		xs = new String(in, start, stop - start);
+		xs = new String(in, start, stop - start, UTF8);
 	}
 
 	@Override
 	protected int indexOf(final char c, final int pos) {
-		for (int i = pos; pos < len; i++) {
+		for (int i = pos; i < len; i++) {
 			if (in[i] == (byte) c) {
 				return i;
 			}
@@ -85,12 +102,69 @@ class JSONParserByteArray extends JSONParserMemory {
 		return -1;
 	}
 
+	@Override
+	protected int charStart() {
+		return charStart;
+	}
+
 	@Override
 	protected void read() {
-		if (++pos >= len) {
+		next();
+	}
+
+	/**
+	 * read the next char, multi-bytes UTF-8 sequences are decoded, pos is left
+	 * on the last byte of the sequence and charStart on the first one
+	 */
+	private void next() {
+		if (low != 0) {
+			this.c = low;
+			low = 0;
+			return;
+		}
+		charStart = ++pos;
+		if (pos >= len) {
 			this.c = EOI;
+			return;
+		}
+		final int b = in[pos];
+		if (b >= 0) {
+			this.c = (char) b;
+			return;
+		}
+		int n, cp;
+		if ((b & 0xE0) == 0xC0) {
+			n = 1;
+			cp = b & 0x1F;
+		} else if ((b & 0xF0) == 0xE0) {
+			n = 2;
+			cp = b & 0x0F;
+		} else if ((b & 0xF8) == 0xF0) {
+			n = 3;
+			cp = b & 0x07;
+		} else {
+			this.c = '\uFFFD';
+			return;
+		}
+		if (pos + n >= len) {
+			this.c = '\uFFFD';
+			return;
+		}
+		for (int i = 1; i <= n; i++) {
+			final int b2 = in[pos + i];
+			if ((b2 & 0xC0) != 0x80) {
+				this.c = '\uFFFD';
+				return;
+			}
+			cp = (cp << 6) | (b2 & 0x3F);
+		}
+		pos += n;
+		if (cp >= 0x10000) {
+			cp -= 0x10000;
+			this.c = (char) (0xD800 + (cp >>> 10));
+			low = (char) (0xDC00 + (cp & 0x3FF));
 		} else {
-			this.c = (char) in[pos];
+			this.c = (char) cp;
 		}
 	}
 
@@ -99,11 +173,7 @@ class JSONParserByteArray extends JSONParserMemory {
 	 */
 	@Override
 	protected void readS() {
-		if (++pos >= len) {
-			this.c = EOI;
-		} else {
-			this.c = (char) in[pos];
-		}
+		next();
 	}
 
 	/**
@@ -111,11 +181,9 @@ class JSONParserByteArray extends JSONParserMemory {
 	 */
 	@Override
 	protected void readNoEnd() throws ParseException {
-		if (++pos >= len) {
-			this.c = EOI;
+		next();
+		if (pos >= len) {
 			throw new ParseException(pos - 1, ERROR_UNEXPECTED_EOF, "EOF");
-		} else {
-			this.c = (char) in[pos];
 		}
 	}
 }
@@ -35,16 +35,24 @@ abstract class JSONParserMemory extends JSONParserBase {
 		super(permissiveMode);
 	}
 
+	/**
+	 * index in the input where the current char c starts, same as pos unless c
+	 * is decoded from several units of the input
+	 */
+	protected int charStart() {
+		return pos;
+	}
+
 	@Override
 	protected void readNQString(final boolean[] stop) throws IOException {
-		final int start = pos;
+		final int start = charStart();
 		skipNQString(stop);
-		extractStringTrim(start, pos);
+		extractStringTrim(start, charStart());
 	}
 
 	@Override
 	protected Object readNumber(final boolean[] stop) throws ParseException, IOException {
-		final int start = pos;
+		final int start = charStart();
 		// accept first char digit or -
 		read();
 		skipDigits();
@@ -55,13 +63,13 @@ abstract class JSONParserMemory extends JSONParserBase {
 			if (c >= 0 && c < MAX_STOP && !stop[c] && c != EOI) {
 				// convert string
 				skipNQString(stop);
-				extractStringTrim(start, pos);
+				extractStringTrim(start, charStart());
 				if (!acceptNonQuote) {
 					throw new ParseException(pos, ERROR_UNEXPECTED_TOKEN, xs);
 				}
 				return xs;
 			}
-			extractStringTrim(start, pos);
+			extractStringTrim(start, charStart());
 			return parseNumber(xs);
 		}
 		// floating point
@@ -75,13 +83,13 @@ abstract class JSONParserMemory extends JSONParserBase {
 			if (c >= 0 && c < MAX_STOP && !stop[c] && c != EOI) {
 				// convert string
 				skipNQString(stop);
-				extractStringTrim(start, pos);
+				extractStringTrim(start, charStart());
 				if (!acceptNonQuote) {
 					throw new ParseException(pos, ERROR_UNEXPECTED_TOKEN, xs);
 				}
 				return xs;
 			}
-			extractStringTrim(start, pos);
+			extractStringTrim(start, charStart());
 			return extractFloat();
 		}
 		sb.append('E');
@@ -94,17 +102,17 @@ abstract class JSONParserMemory extends JSONParserBase {
 			if (c >= 0 && c < MAX_STOP && !stop[c] && c != EOI) {
 				// convert string
 				skipNQString(stop);
-				extractStringTrim(start, pos);
+				extractStringTrim(start, charStart());
 				if (!acceptNonQuote) {
 					throw new ParseException(pos, ERROR_UNEXPECTED_TOKEN, xs);
 				}
 				return xs;
 			}
-			extractStringTrim(start, pos);
+			extractStringTrim(start, charStart());
 			return extractFloat();
 		} else {
 			skipNQString(stop);
-			extractStringTrim(start, pos);
+			extractStringTrim(start, charStart());
 			if (!acceptNonQuote) {
 				throw new ParseException(pos, ERROR_UNEXPECTED_TOKEN, xs);
 			}
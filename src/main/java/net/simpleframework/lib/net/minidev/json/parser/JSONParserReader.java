@@ -62,6 +62,10 @@ class JSONParserReader extends JSONParserStream {
 	//
 	//
 
+	void setInput(final Reader in) {
+		this.in = in;
+	}
+
 	@Override
 	protected void read() throws IOException {
 		final int i = in.read();
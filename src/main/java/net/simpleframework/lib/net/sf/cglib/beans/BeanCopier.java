@@ -117,7 +117,7 @@ abstract public class BeanCopier {
 			EmitUtils.null_constructor(ce);
 			final CodeEmitter e = ce.begin_method(Opcodes.ACC_PUBLIC, COPY, null);
 			final PropertyDescriptor[] getters = ReflectUtils.getBeanGetters(source);
-			final PropertyDescriptor[] setters = ReflectUtils.getBeanGetters(target);
+			final PropertyDescriptor[] setters = ReflectUtils.getBeanSetters(target);
 
 			final Map names = new HashMap();
 			for (int i = 0; i < getters.length; i++) {
@@ -41,6 +41,7 @@ import net.simpleframework.lib.org.mvel2.integration.impl.ClassImportResolverFac
 import net.simpleframework.lib.org.mvel2.integration.impl.ImmutableDefaultFactory;
 import net.simpleframework.lib.org.mvel2.integration.impl.MapVariableResolverFactory;
 import net.simpleframework.lib.org.mvel2.optimizers.impl.refl.nodes.GetterAccessor;
+import net.simpleframework.lib.org.mvel2.util.CompiledExpressionCache;
 
 /**
  * The MVEL convienence class is a collection of static methods that provides a
@@ -826,6 +827,96 @@ public class MVEL {
 		return evalToBoolean(expression, null, vars);
 	}
 
+	private static volatile CompiledExpressionCache expressionCache = new CompiledExpressionCache(
+			4096);
+
+	/**
+	 * The cache used by the evalCached methods.
+	 */
+	public static CompiledExpressionCache getExpressionCache() {
+		return expressionCache;
+	}
+
+	/**
+	 * Replace the cache used by the evalCached methods, e.g. to change its size
+	 * or time-to-live.
+	 */
+	public static void setExpressionCache(final CompiledExpressionCache cache) {
+		expressionCache = cache;
+	}
+
+	/**
+	 * Same as {@link #eval(String)}, but the expression is compiled once and
+	 * kept in the {@link #getExpressionCache() expression cache}, so repeated
+	 * evaluations skip parsing.
+	 * 
+	 * @param expression
+	 *           A String containing the expression to be evaluated.
+	 * @return the resultant value
+	 */
+	public static Object evalCached(final String expression) {
+		return executeExpression(expressionCache.get(expression, null));
+	}
+
+	/**
+	 * @see #eval(String, Object)
+	 * @see #evalCached(String)
+	 */
+	public static Object evalCached(final String expression, final Object ctx) {
+		return executeExpression(expressionCache.get(expression, null), ctx);
+	}
+
+	/**
+	 * @see #eval(String, Map)
+	 * @see #evalCached(String)
+	 */
+	public static Object evalCached(final String expression, final Map<String, Object> vars) {
+		return executeExpression(expressionCache.get(expression, null), vars);
+	}
+
+	/**
+	 * @see #eval(String, Object, Map)
+	 * @see #evalCached(String)
+	 */
+	public static Object evalCached(final String expression, final Object ctx,
+			final Map<String, Object> vars) {
+		return executeExpression(expressionCache.get(expression, null), ctx, vars);
+	}
+
+	/**
+	 * @see #eval(String, Object, VariableResolverFactory)
+	 * @see #evalCached(String)
+	 */
+	public static Object evalCached(final String expression, final Object ctx,
+			final VariableResolverFactory resolverFactory) {
+		return executeExpression(expressionCache.get(expression, null), ctx, resolverFactory);
+	}
+
+	/**
+	 * @see #eval(String, Object, Map, Class)
+	 * @see #evalCached(String)
+	 */
+	public static <T> T evalCached(final String expression, final Object ctx,
+			final Map<String, Object> vars, final Class<T> toType) {
+		return executeExpression(expressionCache.get(expression, null), ctx, vars, toType);
+	}
+
+	/**
+	 * Evaluates an expression compiled with the given ParserContext. The cache
+	 * entry is bound to the ParserContext instance (compared by identity and
+	 * strongly referenced), so the same context must be passed for each
+	 * evaluation: a context created per call never hits the cache, and each
+	 * call adds an entry that pushes reused expressions out of the LRU. In
+	 * that case compile with {@link #compileExpression(String, ParserContext)}
+	 * instead.
+	 * 
+	 * @see #evalCached(String)
+	 */
+	public static Object evalCached(final String expression, final ParserContext pCtx,
+			final Object ctx, final Map<String, Object> vars) {
+		return executeExpression(expressionCache.get(expression, pCtx), ctx, vars);
+	}
+
 	/**
 	 * Performs an analysis compileShared, which will populate the ParserContext
 	 * with type, input and variable information, but will not produce a payload.
@@ -0,0 +1,137 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.optimizers.dynamic;
+
+import static java.lang.System.currentTimeMillis;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.simpleframework.lib.org.mvel2.compiler.Accessor;
+
+/**
+ * Promotion logic shared by the dynamic accessors. Each accessor (call site)
+ * counts its runs with its own atomic counter; once it ran more than
+ * {@link DynamicOptimizer#getTenuringThreshold()} times within
+ * {@link DynamicOptimizer#getTimeSpan()} milliseconds, the first thread to
+ * win a compare-and-set compiles it to bytecode while the other threads keep
+ * using the reflective accessor. No lock is taken.
+ */
+public abstract class AbstractDynamicAccessor implements DynamicAccessor {
+	protected final Accessor _safeAccessor;
+	protected volatile Accessor _accessor;
+
+	private final AtomicBoolean opt = new AtomicBoolean();
+	private final AtomicInteger runcount = new AtomicInteger();
+	private volatile long stamp;
+
+	private final AccessorStatistics statistics;
+
+	protected AbstractDynamicAccessor(final char[] expr, final int start, final int offset,
+			final Accessor _accessor) {
+		this._safeAccessor = this._accessor = _accessor;
+		this.statistics = DynamicOptimizer.isCollectStatistics() ? DynamicOptimizer.getStatistics(
+				expression(expr, start, offset), true) : null;
+		stamp = currentTimeMillis();
+	}
+
+	private static String expression(final char[] expr, final int start, final int offset) {
+		// inline collections pass a negative offset when nothing trails them
+		if (offset > 0 && start >= 0 && start + offset <= expr.length) {
+			return new String(expr, start, offset).trim();
+		}
+		return new String(expr).trim();
+	}
+
+	/**
+	 * Counts a run, returns true when the calling thread has to promote the
+	 * accessor, it must then call {@link #promoted(Accessor)}.
+	 */
+	protected boolean shouldPromote() {
+		if (statistics != null) {
+			statistics.invoked();
+		}
+		if (opt.get()) {
+			return false;
+		}
+		if (runcount.incrementAndGet() > DynamicOptimizer.getTenuringThreshold()) {
+			final long now = currentTimeMillis();
+			if (now - stamp < DynamicOptimizer.getTimeSpan()) {
+				if (DynamicOptimizer.isOverloaded()) {
+					// wait for the class loader to be recycled
+					DynamicOptimizer.enforceTenureLimit();
+				} else if (opt.compareAndSet(false, true)) {
+					return true;
+				}
+			}
+			runcount.set(0);
+			stamp = now;
+		}
+		return false;
+	}
+
+	/**
+	 * Installs the compiled accessor.
+	 */
+	protected void promoted(final Accessor accessor) {
+		_accessor = accessor;
+		if (statistics != null) {
+			statistics.promoted();
+		}
+		DynamicOptimizer.registerPromoted(this);
+	}
+
+	@Override
+	public void deoptimize() {
+		if (_accessor != _safeAccessor && statistics != null) {
+			statistics.deoptimized();
+		}
+		_accessor = _safeAccessor;
+		runcount.set(0);
+		stamp = currentTimeMillis();
+		opt.set(false);
+	}
+
+	public boolean isOptimized() {
+		return _accessor != _safeAccessor;
+	}
+
+	public long getStamp() {
+		return stamp;
+	}
+
+	public int getRuncount() {
+		return runcount.get();
+	}
+
+	public Accessor getAccessor() {
+		return _accessor;
+	}
+
+	public Accessor getSafeAccessor() {
+		return _safeAccessor;
+	}
+
+	/**
+	 * @return the statistics of the expression, null when not collected
+	 */
+	public AccessorStatistics getStatistics() {
+		return statistics;
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.optimizers.dynamic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invocation, promotion and deoptimization counts of the dynamic accessors
+ * created for one expression. The counters are lock-free and shared by all
+ * the accessors (call sites) compiled from the same expression text.
+ */
+public class AccessorStatistics {
+	private final String expression;
+
+	private final AtomicLong invocations = new AtomicLong();
+
+	private final AtomicLong promotions = new AtomicLong();
+
+	private final AtomicLong deoptimizations = new AtomicLong();
+
+	public AccessorStatistics(final String expression) {
+		this.expression = expression;
+	}
+
+	public String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * @return the number of times the accessors were executed
+	 */
+	public long getInvocationCount() {
+		return invocations.get();
+	}
+
+	/**
+	 * @return the number of times an accessor was compiled to bytecode
+	 */
+	public long getPromotionCount() {
+		return promotions.get();
+	}
+
+	/**
+	 * @return the number of times a compiled accessor went back to reflection
+	 */
+	public long getDeoptimizationCount() {
+		return deoptimizations.get();
+	}
+
+	void invoked() {
+		invocations.incrementAndGet();
+	}
+
+	void promoted() {
+		promotions.incrementAndGet();
+	}
+
+	void deoptimized() {
+		deoptimizations.incrementAndGet();
+	}
+
+	@Override
+	public String toString() {
+		return expression + "[invocations=" + getInvocationCount() + ", promotions="
+				+ getPromotionCount() + ", deoptimizations=" + getDeoptimizationCount() + "]";
+	}
+}
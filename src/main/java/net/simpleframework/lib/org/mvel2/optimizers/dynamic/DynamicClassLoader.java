@@ -18,14 +18,17 @@
 
 package net.simpleframework.lib.org.mvel2.optimizers.dynamic;
 
-import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.simpleframework.lib.org.mvel2.util.MVELClassLoader;
 
 public class DynamicClassLoader extends ClassLoader implements MVELClassLoader {
-	private int totalClasses;
+	private final AtomicInteger totalClasses = new AtomicInteger();
 	private final int tenureLimit;
-	private final LinkedList<DynamicAccessor> allAccessors = new LinkedList<DynamicAccessor>();
+	private final Queue<DynamicAccessor> allAccessors = new ConcurrentLinkedQueue<DynamicAccessor>();
+	private final AtomicInteger accessorCount = new AtomicInteger();
 
 	public DynamicClassLoader(final ClassLoader classLoader, final int tenureLimit) {
 		super(classLoader);
@@ -34,40 +37,40 @@ public class DynamicClassLoader extends ClassLoader implements MVELClassLoader {
 
 	@Override
 	public Class defineClassX(final String className, final byte[] b, final int start, final int end) {
-		totalClasses++;
+		totalClasses.incrementAndGet();
 		return super.defineClass(className, b, start, end);
 	}
 
 	public int getTotalClasses() {
-		return totalClasses;
+		return totalClasses.get();
 	}
 
 	public DynamicAccessor registerDynamicAccessor(final DynamicAccessor accessor) {
-		synchronized (allAccessors) {
-			allAccessors.add(accessor);
-			while (allAccessors.size() > tenureLimit) {
-				final DynamicAccessor da = allAccessors.removeFirst();
-				if (da != null) {
-					da.deoptimize();
+		assert accessor != null;
+		allAccessors.add(accessor);
+		if (accessorCount.incrementAndGet() > tenureLimit) {
+			// the oldest accessors go back to reflection
+			while (accessorCount.get() > tenureLimit) {
+				final DynamicAccessor da = allAccessors.poll();
+				if (da == null) {
+					break;
 				}
+				accessorCount.decrementAndGet();
+				da.deoptimize();
 			}
-			assert accessor != null;
-			return accessor;
 		}
+		return accessor;
 	}
 
 	public void deoptimizeAll() {
-		synchronized (allAccessors) {
-			for (final DynamicAccessor a : allAccessors) {
-				if (a != null) {
-					a.deoptimize();
-				}
-			}
-			allAccessors.clear();
+		DynamicAccessor a;
+		while ((a = allAccessors.poll()) != null) {
+			accessorCount.decrementAndGet();
+			a.deoptimize();
 		}
 	}
 
 	public boolean isOverloaded() {
-		return tenureLimit < totalClasses;
+		return tenureLimit < totalClasses.get();
 	}
 }
@@ -18,14 +18,13 @@
 
 package net.simpleframework.lib.org.mvel2.optimizers.dynamic;
 
-import static java.lang.System.currentTimeMillis;
 import net.simpleframework.lib.org.mvel2.ParserContext;
 import net.simpleframework.lib.org.mvel2.compiler.AbstractParser;
 import net.simpleframework.lib.org.mvel2.compiler.Accessor;
 import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
 import net.simpleframework.lib.org.mvel2.optimizers.OptimizerFactory;
 
-public class DynamicCollectionAccessor implements DynamicAccessor {
+public class DynamicCollectionAccessor extends AbstractDynamicAccessor {
 	private final Object rootObject;
 	private final Class colType;
 
@@ -33,88 +32,46 @@ public class DynamicCollectionAccessor implements DynamicAccessor {
 	private final int start;
 	private final int offset;
 
-	private long stamp;
 	private final int type;
 
-	private int runcount;
-
-	private boolean opt = false;
-
-	private final Accessor _safeAccessor;
-	private Accessor _accessor;
-
 	public DynamicCollectionAccessor(final Object rootObject, final Class colType,
 			final char[] property, final int start, final int offset, final int type,
 			final Accessor _accessor) {
+		super(property, start, offset, _accessor);
 		this.rootObject = rootObject;
 		this.colType = colType;
-		this._safeAccessor = this._accessor = _accessor;
 		this.type = type;
 
 		this.property = property;
 		this.start = start;
 		this.offset = offset;
-
-		stamp = currentTimeMillis();
 	}
 
 	@Override
 	public Object getValue(final Object ctx, final Object elCtx,
 			final VariableResolverFactory variableFactory) {
-		if (!opt) {
-			if (++runcount > DynamicOptimizer.tenuringThreshold) {
-				if ((currentTimeMillis() - stamp) < DynamicOptimizer.timeSpan) {
-					opt = true;
-
-					return optimize(AbstractParser.getCurrentThreadParserContext(), ctx, elCtx,
-							variableFactory);
-				} else {
-					runcount = 0;
-					stamp = currentTimeMillis();
-				}
-			}
+		if (shouldPromote()) {
+			return optimize(AbstractParser.getCurrentThreadParserContext(), ctx, elCtx,
+					variableFactory);
 		}
-
 		return _accessor.getValue(ctx, elCtx, variableFactory);
 	}
 
 	@Override
 	public Object setValue(final Object ctx, final Object elCtx,
 			final VariableResolverFactory variableFactory, final Object value) {
-		runcount++;
 		return _accessor.setValue(ctx, elCtx, variableFactory, value);
 	}
 
 	private Object optimize(final ParserContext pCtx, final Object ctx, final Object elCtx,
 			final VariableResolverFactory variableResolverFactory) {
-
-		if (DynamicOptimizer.isOverloaded()) {
-			DynamicOptimizer.enforceTenureLimit();
-		}
-
-		_accessor = OptimizerFactory.getAccessorCompiler("ASM").optimizeCollection(pCtx, rootObject,
-				colType, property, start, offset, ctx, elCtx, variableResolverFactory);
+		promoted(OptimizerFactory.getAccessorCompiler("ASM").optimizeCollection(pCtx, rootObject,
+				colType, property, start, offset, ctx, elCtx, variableResolverFactory));
 		return _accessor.getValue(ctx, elCtx, variableResolverFactory);
 	}
 
-	@Override
-	public void deoptimize() {
-		this._accessor = this._safeAccessor;
-		opt = false;
-		runcount = 0;
-		stamp = currentTimeMillis();
-	}
-
-	public long getStamp() {
-		return stamp;
-	}
-
-	public int getRuncount() {
-		return runcount;
-	}
-
 	@Override
 	public Class getKnownEgressType() {
 		return colType;
 	}
-}
\ No newline at end of file
+}
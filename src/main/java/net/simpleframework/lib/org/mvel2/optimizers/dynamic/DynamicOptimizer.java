@@ -22,22 +22,52 @@ import static java.lang.Thread.currentThread;
 import static net.simpleframework.lib.org.mvel2.optimizers.OptimizerFactory.SAFE_REFLECTIVE;
 import static net.simpleframework.lib.org.mvel2.optimizers.OptimizerFactory.getAccessorCompiler;
 import static net.simpleframework.lib.org.mvel2.optimizers.impl.asm.ASMAccessorOptimizer.setMVELClassLoader;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import net.simpleframework.lib.org.mvel2.ParserContext;
 import net.simpleframework.lib.org.mvel2.compiler.Accessor;
 import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
 import net.simpleframework.lib.org.mvel2.optimizers.AbstractOptimizer;
 import net.simpleframework.lib.org.mvel2.optimizers.AccessorOptimizer;
 
+/**
+ * Starts every accessor with the reflective optimizer and promotes the hot
+ * ones to ASM generated accessors.
+ * <p/>
+ * Creating an accessor takes no lock. Each accessor counts its own runs with
+ * an atomic counter and is promoted by the first thread crossing the
+ * threshold (see {@link AbstractDynamicAccessor}). Promoted accessors are
+ * registered with the current {@link DynamicClassLoader}; once it holds more
+ * than {@link #getMaximumTenure()} classes it is replaced and its accessors
+ * deoptimized on a background thread, so request threads never wait for it.
+ * <p/>
+ * Per expression counts of invocations, promotions and deoptimizations are
+ * kept when {@link #setCollectStatistics(boolean)} is on.
+ */
 public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptimizer {
 	private final AccessorOptimizer firstStage = getAccessorCompiler(SAFE_REFLECTIVE);
 
-	private static final Object oLock = new Object();
 	private volatile static DynamicClassLoader classLoader;
-	public static int tenuringThreshold = 50;
-	public static long timeSpan = 100;
-	public static int maximumTenure = 1500;
-	public static int totalRecycled = 0;
-	private static volatile boolean useSafeClassloading = false;
+	private static volatile int tenuringThreshold = 50;
+	private static volatile long timeSpan = 100;
+	private static volatile int maximumTenure = 1500;
+	private static final AtomicLong totalRecycled = new AtomicLong();
+
+	private static final AtomicBoolean recycling = new AtomicBoolean();
+	private static ExecutorService recycler;
+
+	private static volatile boolean collectStatistics;
+	private static final ConcurrentMap<String, AccessorStatistics> statistics = new ConcurrentHashMap<String, AccessorStatistics>();
 
 	@Override
 	public void init() {
@@ -49,14 +79,129 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
 				.getContextClassLoader(), maximumTenure));
 	}
 
+	/**
+	 * Number of runs after which an accessor is compiled to bytecode.
+	 */
+	public static int getTenuringThreshold() {
+		return tenuringThreshold;
+	}
+
+	public static void setTenuringThreshold(final int tenuringThreshold) {
+		DynamicOptimizer.tenuringThreshold = tenuringThreshold;
+	}
+
+	/**
+	 * Milliseconds within which the runs must happen, otherwise counting starts
+	 * over.
+	 */
+	public static long getTimeSpan() {
+		return timeSpan;
+	}
+
+	public static void setTimeSpan(final long timeSpan) {
+		DynamicOptimizer.timeSpan = timeSpan;
+	}
+
+	/**
+	 * Number of generated classes after which the class loader is recycled,
+	 * applies from the next recycling.
+	 */
+	public static int getMaximumTenure() {
+		return maximumTenure;
+	}
+
+	public static void setMaximumTenure(final int maximumTenure) {
+		DynamicOptimizer.maximumTenure = maximumTenure;
+	}
+
+	/**
+	 * @return the number of generated classes dropped with recycled class
+	 *         loaders
+	 */
+	public static long getTotalRecycled() {
+		return totalRecycled.get();
+	}
+
+	/**
+	 * Recycle the class loader if it is overloaded. The work is done on a
+	 * background thread, the call returns at once.
+	 */
 	public static void enforceTenureLimit() {
-		if (classLoader.isOverloaded()) {
-			synchronized (oLock) {
-				classLoader.deoptimizeAll();
-				totalRecycled = +classLoader.getTotalClasses();
-				_init();
+		if (classLoader.isOverloaded() && recycling.compareAndSet(false, true)) {
+			getRecycler().execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						final DynamicClassLoader old = classLoader;
+						if (old.isOverloaded()) {
+							setMVELClassLoader(classLoader = new DynamicClassLoader(old.getParent(),
+									maximumTenure));
+							old.deoptimizeAll();
+							totalRecycled.addAndGet(old.getTotalClasses());
+						}
+					} finally {
+						recycling.set(false);
+					}
+				}
+			});
+		}
+	}
+
+	private static synchronized ExecutorService getRecycler() {
+		if (recycler == null) {
+			recycler = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread t = new Thread(r, "DynamicOptimizer-recycler");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return recycler;
+	}
+
+	static void registerPromoted(final DynamicAccessor accessor) {
+		classLoader.registerDynamicAccessor(accessor);
+	}
+
+	public static boolean isCollectStatistics() {
+		return collectStatistics;
+	}
+
+	/**
+	 * Turn on or off the statistics, they apply to the accessors created from
+	 * now on.
+	 */
+	public static void setCollectStatistics(final boolean collectStatistics) {
+		DynamicOptimizer.collectStatistics = collectStatistics;
+	}
+
+	/**
+	 * @return a snapshot of the statistics, by expression
+	 */
+	public static Map<String, AccessorStatistics> getStatistics() {
+		return Collections.unmodifiableMap(new HashMap<String, AccessorStatistics>(statistics));
+	}
+
+	public static AccessorStatistics getStatistics(final String expression) {
+		return statistics.get(expression);
+	}
+
+	static AccessorStatistics getStatistics(final String expression, final boolean create) {
+		AccessorStatistics stats = statistics.get(expression);
+		if (stats == null && create) {
+			stats = new AccessorStatistics(expression);
+			final AccessorStatistics current = statistics.putIfAbsent(expression, stats);
+			if (current != null) {
+				stats = current;
 			}
 		}
+		return stats;
+	}
+
+	public static void clearStatistics() {
+		statistics.clear();
 	}
 
 	public static final int REGULAR_ACCESSOR = 0;
@@ -65,12 +210,9 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
 	public Accessor optimizeAccessor(final ParserContext pCtx, final char[] property,
 			final int start, final int offset, final Object ctx, final Object thisRef,
 			final VariableResolverFactory factory, final boolean rootThisRef, final Class ingressType) {
-		synchronized (oLock) {
-			pCtx.optimizationNotify();
-			return classLoader.registerDynamicAccessor(new DynamicGetAccessor(pCtx, property, start,
-					offset, 0, firstStage.optimizeAccessor(pCtx, property, start, offset, ctx, thisRef,
-							factory, rootThisRef, ingressType)));
-		}
+		pCtx.optimizationNotify();
+		return new DynamicGetAccessor(pCtx, property, start, offset, 0, firstStage.optimizeAccessor(
+				pCtx, property, start, offset, ctx, thisRef, factory, rootThisRef, ingressType));
 	}
 
 	public static final int SET_ACCESSOR = 1;
@@ -80,12 +222,8 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
 			final int start, final int offset, final Object ctx, final Object thisRef,
 			final VariableResolverFactory factory, final boolean rootThisRef, final Object value,
 			final Class valueType) {
-
-		synchronized (oLock) {
-			return classLoader.registerDynamicAccessor(new DynamicSetAccessor(pCtx, property, start,
-					offset, firstStage.optimizeSetAccessor(pCtx, property, start, offset, ctx, thisRef,
-							factory, rootThisRef, value, valueType)));
-		}
+		return new DynamicSetAccessor(pCtx, property, start, offset, firstStage.optimizeSetAccessor(
+				pCtx, property, start, offset, ctx, thisRef, factory, rootThisRef, value, valueType));
 	}
 
 	public static final int COLLECTION = 2;
@@ -94,11 +232,9 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
 	public Accessor optimizeCollection(final ParserContext pCtx, final Object rootObject,
 			final Class type, final char[] property, final int start, final int offset,
 			final Object ctx, final Object thisRef, final VariableResolverFactory factory) {
-		synchronized (oLock) {
-			return classLoader.registerDynamicAccessor(new DynamicCollectionAccessor(rootObject, type,
-					property, start, offset, 2, firstStage.optimizeCollection(pCtx, rootObject, type,
-							property, start, offset, ctx, thisRef, factory)));
-		}
+		return new DynamicCollectionAccessor(rootObject, type, property, start, offset, 2,
+				firstStage.optimizeCollection(pCtx, rootObject, type, property, start, offset, ctx,
+						thisRef, factory));
 	}
 
 	public static final int OBJ_CREATION = 3;
@@ -107,11 +243,8 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
 	public Accessor optimizeObjectCreation(final ParserContext pCtx, final char[] property,
 			final int start, final int offset, final Object ctx, final Object thisRef,
 			final VariableResolverFactory factory) {
-		synchronized (oLock) {
-			return classLoader.registerDynamicAccessor(new DynamicGetAccessor(pCtx, property, start,
-					offset, 3, firstStage.optimizeObjectCreation(pCtx, property, start, offset, ctx,
-							thisRef, factory)));
-		}
+		return new DynamicGetAccessor(pCtx, property, start, offset, 3,
+				firstStage.optimizeObjectCreation(pCtx, property, start, offset, ctx, thisRef, factory));
 	}
 
 	public static boolean isOverloaded() {
@@ -18,55 +18,37 @@
 
 package net.simpleframework.lib.org.mvel2.optimizers.dynamic;
 
-import static java.lang.System.currentTimeMillis;
 import net.simpleframework.lib.org.mvel2.ParserContext;
 import net.simpleframework.lib.org.mvel2.compiler.Accessor;
 import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
 import net.simpleframework.lib.org.mvel2.optimizers.AccessorOptimizer;
 import net.simpleframework.lib.org.mvel2.optimizers.OptimizerFactory;
 
-public class DynamicSetAccessor implements DynamicAccessor {
+public class DynamicSetAccessor extends AbstractDynamicAccessor {
 	private final char[] property;
 	private final int start;
 	private final int offset;
 
-	private boolean opt = false;
-	private int runcount = 0;
-	private long stamp;
-
 	private final ParserContext context;
-	private final Accessor _safeAccessor;
-	private Accessor _accessor;
 	private String description;
 
 	public DynamicSetAccessor(final ParserContext context, final char[] property, final int start,
 			final int offset, final Accessor _accessor) {
+		super(property, start, offset, _accessor);
 		assert _accessor != null;
-		this._safeAccessor = this._accessor = _accessor;
 		this.context = context;
 
 		this.property = property;
 		this.start = start;
 		this.offset = offset;
-
-		this.stamp = System.currentTimeMillis();
 	}
 
 	@Override
 	public Object setValue(final Object ctx, final Object elCtx,
 			final VariableResolverFactory variableFactory, final Object value) {
-		if (!opt) {
-			if (++runcount > DynamicOptimizer.tenuringThreshold) {
-				if ((currentTimeMillis() - stamp) < DynamicOptimizer.timeSpan) {
-					opt = true;
-					return optimize(ctx, elCtx, variableFactory, value);
-				} else {
-					runcount = 0;
-					stamp = currentTimeMillis();
-				}
-			}
+		if (shouldPromote()) {
+			return optimize(ctx, elCtx, variableFactory, value);
 		}
-
 		_accessor.setValue(ctx, elCtx, variableFactory, value);
 		return value;
 	}
@@ -79,26 +61,16 @@ public class DynamicSetAccessor implements DynamicAccessor {
 
 	private Object optimize(final Object ctx, final Object elCtx,
 			final VariableResolverFactory variableResolverFactory, final Object value) {
-		if (DynamicOptimizer.isOverloaded()) {
-			DynamicOptimizer.enforceTenureLimit();
-		}
-
 		final AccessorOptimizer ao = OptimizerFactory.getAccessorCompiler("ASM");
-		_accessor = ao.optimizeSetAccessor(context, property, start, offset, ctx, elCtx,
-				variableResolverFactory, false, value, value != null ? value.getClass() : Object.class);
-		assert _accessor != null;
+		final Accessor accessor = ao.optimizeSetAccessor(context, property, start, offset, ctx,
+				elCtx, variableResolverFactory, false, value, value != null ? value.getClass()
+						: Object.class);
+		assert accessor != null;
+		promoted(accessor);
 
 		return value;
 	}
 
-	@Override
-	public void deoptimize() {
-		this._accessor = this._safeAccessor;
-		opt = false;
-		runcount = 0;
-		stamp = currentTimeMillis();
-	}
-
 	public String getDescription() {
 		return description;
 	}
@@ -111,4 +83,4 @@ public class DynamicSetAccessor implements DynamicAccessor {
 	public Class getKnownEgressType() {
 		return _safeAccessor.getKnownEgressType();
 	}
-}
\ No newline at end of file
+}
@@ -186,15 +186,16 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
 			OPCODES_VERSION = Opcodes.V1_4;
 		} else if (javaVersion.startsWith("1.5")) {
 			OPCODES_VERSION = Opcodes.V1_5;
-		} else if (javaVersion.startsWith("1.6") || javaVersion.startsWith("1.7")) {
-			OPCODES_VERSION = Opcodes.V1_6;
-		} else {
+		} else if (javaVersion.startsWith("1.2") || javaVersion.startsWith("1.3")) {
 			OPCODES_VERSION = Opcodes.V1_2;
+		} else {
+			// 1.6 and later (1.8, 9, 11 ...), class constants need at least 1.5
+			OPCODES_VERSION = Opcodes.V1_6;
 		}
 
 		final String defaultNameSapce = getProperty("mvel2.namespace");
 		if (defaultNameSapce == null) {
-			NAMESPACE = "org/mvel2/";
+			NAMESPACE = "net/simpleframework/lib/org/mvel2/";
 		} else {
 			NAMESPACE = defaultNameSapce;
 		}
@@ -2277,7 +2278,7 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
 				"(Ljava/lang/Object;Ljava/lang/Class;)Ljava/lang/Object;");
 	}
 
-	private static MVELClassLoader classLoader;
+	private static volatile MVELClassLoader classLoader;
 
 	public static void setMVELClassLoader(final MVELClassLoader cl) {
 		classLoader = cl;
@@ -0,0 +1,406 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.templates;
+
+import static net.simpleframework.lib.org.mvel2.templates.TemplateCompiler.compileTemplate;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A template registry that also caches compiled templates, so a template is
+ * parsed once and then only executed.
+ * <p/>
+ * Templates given as source text are keyed by the text itself and kept in a
+ * ConcurrentHashMap, a cache hit takes no lock and only stamps the entry with
+ * its access time. When a miss grows the cache beyond maxSources, the least
+ * recently used entries are evicted in one sweep (plus some slack, so the
+ * sweep is not repeated on every miss); the bound is therefore approximate
+ * while several threads compile at once. File backed templates are keyed by
+ * path and remember the modification time they were compiled from; a daemon
+ * thread polls those files and recompiles changed ones in the background, the
+ * previous version is served until the new one is ready. A template that fails to compile after a change is reported on
+ * System.err once per change.
+ */
+public class CachingTemplateRegistry implements TemplateRegistry {
+	/**
+	 * templates compiled from source text
+	 */
+	private final ConcurrentMap<String, SourceEntry> sources = new ConcurrentHashMap<String, SourceEntry>();
+
+	/**
+	 * file backed templates, by path
+	 */
+	private final ConcurrentMap<String, FileEntry> files = new ConcurrentHashMap<String, FileEntry>();
+
+	/**
+	 * named templates, either a CompiledTemplate or a FileEntry
+	 */
+	private final Map<String, Object> named = new ConcurrentHashMap<String, Object>();
+
+	private final int maxSources;
+
+	private volatile long checkInterval;
+
+	private volatile boolean classCompile;
+
+	private ScheduledExecutorService checker;
+
+	private ScheduledFuture<?> checkTask;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong reloads = new AtomicLong();
+
+	private final AtomicLong reloadFailures = new AtomicLong();
+
+	/**
+	 * @param maxSources
+	 *           the maximum number of source text templates kept
+	 * @param checkInterval
+	 *           milliseconds between two checks of the template files, 0 to
+	 *           never reload
+	 */
+	public CachingTemplateRegistry(final int maxSources, final long checkInterval) {
+		this.maxSources = Math.max(1, maxSources);
+		this.checkInterval = checkInterval;
+	}
+
+	public CachingTemplateRegistry() {
+		this(1024, 2000);
+	}
+
+	/**
+	 * Returns the compiled template for the given source text.
+	 */
+	public CompiledTemplate getTemplate(final String template) {
+		SourceEntry entry = sources.get(template);
+		if (entry != null) {
+			hits.incrementAndGet();
+			entry.stamp = System.nanoTime();
+			return entry.template;
+		}
+		misses.incrementAndGet();
+		final SourceEntry compiled = new SourceEntry(compile(compileTemplate(template)));
+		// another thread may have compiled it in the meantime
+		entry = sources.putIfAbsent(template, compiled);
+		if (entry != null) {
+			return entry.template;
+		}
+		if (sources.size() > maxSources) {
+			evict();
+		}
+		return compiled.template;
+	}
+
+	/**
+	 * Remove the least recently used source templates, down to 7/8 of
+	 * maxSources.
+	 */
+	private void evict() {
+		synchronized (sources) {
+			final int size = sources.size();
+			if (size <= maxSources) {
+				return;
+			}
+			final long[] stamps = new long[size];
+			int n = 0;
+			for (final SourceEntry entry : sources.values()) {
+				if (n == size) {
+					break;
+				}
+				stamps[n++] = entry.stamp;
+			}
+			final int remove = Math.min(n, size - maxSources + maxSources / 8);
+			if (remove <= 0) {
+				return;
+			}
+			Arrays.sort(stamps, 0, n);
+			final long oldest = stamps[remove - 1];
+			for (final Iterator<SourceEntry> it = sources.values().iterator(); it.hasNext();) {
+				if (it.next().stamp <= oldest) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the compiled template of the file, it is compiled on first use
+	 * and then kept up to date with the file.
+	 */
+	public CompiledTemplate getTemplate(final File file) {
+		return getFileEntry(file).template;
+	}
+
+	private FileEntry getFileEntry(final File file) {
+		final String path = file.getAbsolutePath();
+		FileEntry entry = files.get(path);
+		if (entry != null) {
+			hits.incrementAndGet();
+			return entry;
+		}
+		misses.incrementAndGet();
+		entry = new FileEntry(file);
+		// keep the entry of the thread that got there first
+		final FileEntry current = files.putIfAbsent(path, entry);
+		if (current != null) {
+			return current;
+		}
+		startChecker();
+		return entry;
+	}
+
+	@Override
+	public void addNamedTemplate(final String name, final CompiledTemplate template) {
+		named.put(name, template);
+	}
+
+	/**
+	 * Register a named template backed by a file, reloaded when the file
+	 * changes.
+	 */
+	public void addNamedTemplate(final String name, final File file) {
+		named.put(name, getFileEntry(file));
+	}
+
+	@Override
+	public CompiledTemplate getNamedTemplate(final String name) {
+		final Object t = named.get(name);
+		if (t == null) {
+			throw new TemplateError("no named template exists '" + name + "'");
+		}
+		return t instanceof FileEntry ? ((FileEntry) t).template : (CompiledTemplate) t;
+	}
+
+	@Override
+	public Iterator iterator() {
+		return getNames().iterator();
+	}
+
+	@Override
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(named.keySet());
+	}
+
+	@Override
+	public boolean contains(final String name) {
+		return named.containsKey(name);
+	}
+
+	/**
+	 * Drop all cached templates, named templates are kept.
+	 */
+	public void clear() {
+		sources.clear();
+		files.clear();
+	}
+
+	public boolean isClassCompile() {
+		return classCompile;
+	}
+
+	/**
+	 * Compile the templates cached from now on into renderer classes, see
+	 * {@link TemplateClassCompiler}.
+	 */
+	public CachingTemplateRegistry setClassCompile(final boolean classCompile) {
+		this.classCompile = classCompile;
+		return this;
+	}
+
+	private CompiledTemplate compile(final CompiledTemplate template) {
+		return classCompile ? TemplateClassCompiler.compile(template) : template;
+	}
+
+	public int getMaxSources() {
+		return maxSources;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of file templates compiled again after a change
+	 */
+	public long getReloadCount() {
+		return reloads.get();
+	}
+
+	/**
+	 * @return the number of times a changed file template failed to compile
+	 */
+	public long getReloadFailureCount() {
+		return reloadFailures.get();
+	}
+
+	public long getCheckInterval() {
+		return checkInterval;
+	}
+
+	public synchronized void setCheckInterval(final long checkInterval) {
+		this.checkInterval = checkInterval;
+		if (checkTask != null) {
+			checkTask.cancel(false);
+			checkTask = null;
+		}
+		startChecker();
+	}
+
+	/**
+	 * Stop the file checking thread.
+	 */
+	public synchronized void close() {
+		if (checker != null) {
+			checker.shutdownNow();
+			checker = null;
+			checkTask = null;
+		}
+	}
+
+	private synchronized void startChecker() {
+		if (checkTask != null || checkInterval <= 0) {
+			return;
+		}
+		if (checker == null) {
+			checker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread t = new Thread(r, "TemplateRegistry-checker");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		checkTask = checker.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				checkFiles();
+			}
+		}, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Recompile the file templates changed since they were compiled.
+	 */
+	public void checkFiles() {
+		for (final FileEntry entry : files.values()) {
+			check(entry);
+		}
+		for (final Object t : named.values()) {
+			if (t instanceof FileEntry) {
+				check((FileEntry) t);
+			}
+		}
+	}
+
+	private void check(final FileEntry entry) {
+		if (entry.isModified()) {
+			try {
+				entry.reload();
+				reloads.incrementAndGet();
+			} catch (final RuntimeException e) {
+				// keep the previous version, report the failure once for this change
+				if (entry.failed()) {
+					reloadFailures.incrementAndGet();
+					System.err.println("[MVEL] Notice: unable to reload template " + entry.file + ": "
+							+ e.getMessage() + ", the previous version is kept");
+				}
+			}
+		}
+	}
+
+	private class FileEntry {
+		private final File file;
+
+		private volatile CompiledTemplate template;
+
+		private long lastModified, length;
+
+		/**
+		 * modification time and length of the version that failed to compile
+		 */
+		private long failedModified = -1, failedLength = -1;
+
+		FileEntry(final File file) {
+			this.file = file;
+			reload();
+		}
+
+		boolean isModified() {
+			return file.lastModified() != lastModified || file.length() != length;
+		}
+
+		void reload() {
+			final long lastModified = file.lastModified();
+			final long length = file.length();
+			template = compile(compileTemplate(file));
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		/**
+		 * Remember the current version failed, returns false if it was already
+		 * reported.
+		 */
+		boolean failed() {
+			final long lastModified = file.lastModified();
+			final long length = file.length();
+			if (lastModified == failedModified && length == failedLength) {
+				return false;
+			}
+			failedModified = lastModified;
+			failedLength = length;
+			return true;
+		}
+	}
+
+	private static class SourceEntry {
+		private final CompiledTemplate template;
+
+		/**
+		 * System.nanoTime() of the last access
+		 */
+		private volatile long stamp;
+
+		SourceEntry(final CompiledTemplate template) {
+			this.template = template;
+			this.stamp = System.nanoTime();
+		}
+	}
+}
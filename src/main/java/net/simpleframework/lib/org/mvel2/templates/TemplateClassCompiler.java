@@ -0,0 +1,332 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.templates;
+
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.AALOAD;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.ACC_FINAL;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.ACC_SUPER;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.ALOAD;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.GETFIELD;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.ILOAD;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.POP;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.RETURN;
+import static net.simpleframework.lib.org.objectweb.asm.Opcodes.V1_6;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.simpleframework.lib.org.mvel2.compiler.ExecutableStatement;
+import net.simpleframework.lib.org.mvel2.templates.res.CompiledExpressionNode;
+import net.simpleframework.lib.org.mvel2.templates.res.CompiledForEachNode;
+import net.simpleframework.lib.org.mvel2.templates.res.CompiledSegmentNode;
+import net.simpleframework.lib.org.mvel2.templates.res.ExpressionNode;
+import net.simpleframework.lib.org.mvel2.templates.res.IfNode;
+import net.simpleframework.lib.org.mvel2.templates.res.Node;
+import net.simpleframework.lib.org.mvel2.templates.res.TextNode;
+import net.simpleframework.lib.org.objectweb.asm.ClassWriter;
+import net.simpleframework.lib.org.objectweb.asm.Label;
+import net.simpleframework.lib.org.objectweb.asm.MethodVisitor;
+
+/**
+ * Compiles the node tree of a {@link CompiledTemplate} into a single
+ * {@link TemplateRenderer} class.
+ * <p/>
+ * Every run of {@link TextNode}s and {@link CompiledExpressionNode}s, in the
+ * main chain as well as in foreach and if bodies, becomes one method of the
+ * generated class: static text is appended as char[] (or as pre-encoded UTF-8
+ * bytes to a TemplateByteOutputStream) and expressions are executed directly,
+ * without walking the nodes. The run is then replaced in
+ * the tree by a {@link CompiledSegmentNode}; other nodes (foreach, if, include,
+ * code ...) are kept and still drive the control flow, so the rendering
+ * contract does not change.
+ * <p/>
+ * The template is rewritten in place, rendering it concurrently is safe as
+ * each replaced link leads to an equivalent chain.
+ */
+public class TemplateClassCompiler {
+	/**
+	 * maximum number of nodes rendered by one generated method
+	 */
+	private static final int MAX_SEGMENT_NODES = 512;
+
+	private static final String BASE = "net/simpleframework/lib/org/mvel2/templates/TemplateRenderer";
+	private static final String OUT = "net/simpleframework/lib/org/mvel2/templates/util/TemplateOutputStream";
+	private static final String STATEMENT = "net/simpleframework/lib/org/mvel2/compiler/ExecutableStatement";
+	private static final String FACTORY = "net/simpleframework/lib/org/mvel2/integration/VariableResolverFactory";
+	private static final String SEGMENT_DESC = "(L" + OUT + ";Ljava/lang/Object;L" + FACTORY + ";)V";
+
+	private static final AtomicInteger sequence = new AtomicInteger();
+
+	private static final int ROOT = 0, NEXT = 1, NESTED = 2, TRUE = 3;
+
+	/**
+	 * a run of text and expression nodes
+	 */
+	private static class Segment {
+		final int index;
+		final List<Node> nodes = new ArrayList<Node>();
+		Node after;
+		CompiledSegmentNode node;
+
+		Segment(final int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * a link of the tree pointing to the first node of a segment
+	 */
+	private static class Link {
+		final Node owner;
+		final int kind;
+		final Node target;
+
+		Link(final Node owner, final int kind, final Node target) {
+			this.owner = owner;
+			this.kind = kind;
+			this.target = target;
+		}
+	}
+
+	private final CompiledTemplate template;
+	private final Map<Node, Segment> segments = new IdentityHashMap<Node, Segment>();
+	private final List<Segment> segmentList = new ArrayList<Segment>();
+	private final Map<Node, Boolean> visited = new IdentityHashMap<Node, Boolean>();
+	private final LinkedList<Node> pending = new LinkedList<Node>();
+	private final List<Link> links = new ArrayList<Link>();
+
+	private final List<char[]> texts = new ArrayList<char[]>();
+	private final List<ExecutableStatement> exprs = new ArrayList<ExecutableStatement>();
+
+	private TemplateClassCompiler(final CompiledTemplate template) {
+		this.template = template;
+	}
+
+	/**
+	 * Compile the template, the template is rewritten and returned.
+	 */
+	public static CompiledTemplate compile(final CompiledTemplate template) {
+		synchronized (template) {
+			new TemplateClassCompiler(template).compile();
+		}
+		return template;
+	}
+
+	private void compile() {
+		link(null, ROOT, template.getRoot());
+		while (!pending.isEmpty()) {
+			visit(pending.removeFirst());
+		}
+		if (segmentList.isEmpty()) {
+			return;
+		}
+
+		final TemplateRenderer renderer = newRenderer();
+		for (final Segment segment : segmentList) {
+			segment.node = new CompiledSegmentNode(renderer, segment.index, segment.nodes.get(0),
+					null);
+		}
+		for (final Segment segment : segmentList) {
+			segment.node.next = resolve(segment.after);
+		}
+		for (final Link link : links) {
+			final Node node = resolve(link.target);
+			switch (link.kind) {
+			case ROOT:
+				template.setRoot(node);
+				break;
+			case NEXT:
+				link.owner.next = node;
+				break;
+			case NESTED:
+				((CompiledForEachNode) link.owner).setNestedNode(node);
+				break;
+			case TRUE:
+				((IfNode) link.owner).setTrueNode((ExpressionNode) node);
+				break;
+			}
+		}
+	}
+
+	private static boolean isSegmentNode(final Node node) {
+		return node != null
+				&& (node.getClass() == TextNode.class || node.getClass() == CompiledExpressionNode.class);
+	}
+
+	private Node resolve(final Node node) {
+		final Segment segment = node == null ? null : segments.get(node);
+		return segment != null ? segment.node : node;
+	}
+
+	private void link(final Node owner, final int kind, final Node target) {
+		if (target == null) {
+			return;
+		}
+		if (isSegmentNode(target)) {
+			if (owner != null || kind == ROOT) {
+				links.add(new Link(owner, kind, target));
+			}
+			if (!segments.containsKey(target)) {
+				final Segment segment = new Segment(segmentList.size());
+				segments.put(target, segment);
+				segmentList.add(segment);
+				Node n = target;
+				while (isSegmentNode(n) && segment.nodes.size() < MAX_SEGMENT_NODES) {
+					segment.nodes.add(n);
+					n = n.next;
+				}
+				segment.after = n;
+				link(null, NEXT, n);
+			}
+		} else {
+			pending.add(target);
+		}
+	}
+
+	private void visit(final Node node) {
+		if (visited.put(node, Boolean.TRUE) != null) {
+			return;
+		}
+		link(node, NEXT, node.next);
+		if (node instanceof CompiledForEachNode) {
+			link(node, NESTED, ((CompiledForEachNode) node).getNestedNode());
+		} else if (node instanceof IfNode) {
+			link(node, TRUE, ((IfNode) node).getTrueNode());
+		}
+	}
+
+	private TemplateRenderer newRenderer() {
+		final String className = BASE + "_" + sequence.incrementAndGet();
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, className, null, BASE, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "([[C[L" + STATEMENT + ";)V", null,
+				null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKESPECIAL, BASE, "<init>", "([[C[L" + STATEMENT + ";)V");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		final char[] chars = template.getTemplate();
+		for (final Segment segment : segmentList) {
+			mv = cw.visitMethod(ACC_PRIVATE + ACC_FINAL, "s" + segment.index, SEGMENT_DESC, null, null);
+			mv.visitCode();
+			for (final Node n : segment.nodes) {
+				if (n instanceof TextNode) {
+					final int len = n.getEnd() - n.getBegin();
+					if (len == 0) {
+						continue;
+					}
+					final char[] text = new char[len];
+					System.arraycopy(chars, n.getBegin(), text, 0, len);
+					// text(out, i)
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitVarInsn(ALOAD, 1);
+					mv.visitLdcInsn(texts.size());
+					mv.visitMethodInsn(INVOKEVIRTUAL, BASE, "text", "(L" + OUT + ";I)V");
+					texts.add(text);
+				} else {
+					// out.append(String.valueOf(exprs[i].getValue(ctx, factory)))
+					mv.visitVarInsn(ALOAD, 1);
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitFieldInsn(GETFIELD, BASE, "exprs", "[L" + STATEMENT + ";");
+					mv.visitLdcInsn(exprs.size());
+					mv.visitInsn(AALOAD);
+					mv.visitVarInsn(ALOAD, 2);
+					mv.visitVarInsn(ALOAD, 3);
+					mv.visitMethodInsn(INVOKEINTERFACE, STATEMENT, "getValue", "(Ljava/lang/Object;L"
+							+ FACTORY + ";)Ljava/lang/Object;");
+					mv.visitMethodInsn(INVOKESTATIC, "java/lang/String", "valueOf",
+							"(Ljava/lang/Object;)Ljava/lang/String;");
+					mv.visitMethodInsn(INVOKEINTERFACE, OUT, "append", "(Ljava/lang/CharSequence;)L"
+							+ OUT + ";");
+					mv.visitInsn(POP);
+					exprs.add((ExecutableStatement) ((CompiledExpressionNode) n)
+							.getCompiledExpression());
+				}
+			}
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		// render(segment, out, ctx, factory) dispatches to the segment methods
+		mv = cw.visitMethod(ACC_PUBLIC, "render", "(IL" + OUT + ";Ljava/lang/Object;L" + FACTORY
+				+ ";)V", null, null);
+		mv.visitCode();
+		final Label dflt = new Label();
+		final Label[] labels = new Label[segmentList.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		mv.visitVarInsn(ILOAD, 1);
+		mv.visitTableSwitchInsn(0, labels.length - 1, dflt, labels);
+		for (int i = 0; i < labels.length; i++) {
+			mv.visitLabel(labels[i]);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitVarInsn(ALOAD, 2);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitVarInsn(ALOAD, 4);
+			mv.visitMethodInsn(INVOKESPECIAL, className, "s" + i, SEGMENT_DESC);
+			mv.visitInsn(RETURN);
+		}
+		mv.visitLabel(dflt);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		try {
+			final Class<?> rendererClass = new RendererClassLoader().define(
+					className.replace('/', '.'), cw.toByteArray());
+			return (TemplateRenderer) rendererClass.getConstructor(char[][].class,
+					ExecutableStatement[].class).newInstance(texts.toArray(new char[texts.size()][]),
+					exprs.toArray(new ExecutableStatement[exprs.size()]));
+		} catch (final Exception e) {
+			throw new TemplateError("unable to generate the template renderer", e);
+		}
+	}
+
+	/**
+	 * one loader per renderer, so the class can be unloaded with its template
+	 */
+	private static class RendererClassLoader extends ClassLoader {
+		RendererClassLoader() {
+			super(TemplateRenderer.class.getClassLoader());
+		}
+
+		Class<?> define(final String name, final byte[] b) {
+			return defineClass(name, b, 0, b.length);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.templates;
+
+import java.nio.charset.Charset;
+
+import net.simpleframework.lib.org.mvel2.compiler.ExecutableStatement;
+import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
+import net.simpleframework.lib.org.mvel2.templates.util.TemplateByteOutputStream;
+import net.simpleframework.lib.org.mvel2.templates.util.TemplateOutputStream;
+
+/**
+ * Base class of the renderers generated by {@link TemplateClassCompiler}. A
+ * renderer holds the static text and the compiled expressions of a template,
+ * and renders each run of text and expression nodes (a segment) with
+ * straight-line code.
+ * <p/>
+ * The texts are also encoded to UTF-8 once, into a single shared array, and
+ * written as slices of it to a {@link TemplateByteOutputStream}.
+ */
+public abstract class TemplateRenderer {
+	protected final char[][] texts;
+
+	protected final ExecutableStatement[] exprs;
+
+	/**
+	 * the UTF-8 encoded texts, text i spans offsets[i] to offsets[i + 1]
+	 */
+	private final byte[] utf8;
+
+	private final int[] offsets;
+
+	protected TemplateRenderer(final char[][] texts, final ExecutableStatement[] exprs) {
+		this.texts = texts;
+		this.exprs = exprs;
+		final Charset charset = Charset.forName("UTF-8");
+		final byte[][] encoded = new byte[texts.length][];
+		offsets = new int[texts.length + 1];
+		for (int i = 0; i < texts.length; i++) {
+			encoded[i] = new String(texts[i]).getBytes(charset);
+			offsets[i + 1] = offsets[i] + encoded[i].length;
+		}
+		utf8 = new byte[offsets[texts.length]];
+		for (int i = 0; i < texts.length; i++) {
+			System.arraycopy(encoded[i], 0, utf8, offsets[i], encoded[i].length);
+		}
+	}
+
+	/**
+	 * Appends the text i, as bytes when the stream takes bytes.
+	 */
+	protected final void text(final TemplateOutputStream appender, final int i) {
+		if (appender instanceof TemplateByteOutputStream) {
+			((TemplateByteOutputStream) appender).write(utf8, offsets[i], offsets[i + 1] - offsets[i]);
+		} else {
+			appender.append(texts[i]);
+		}
+	}
+
+	public abstract void render(int segment, TemplateOutputStream appender, Object ctx,
+			VariableResolverFactory factory);
+}
@@ -34,6 +34,7 @@ import net.simpleframework.lib.org.mvel2.templates.util.TemplateTools;
 import net.simpleframework.lib.org.mvel2.templates.util.io.StandardOutputStream;
 import net.simpleframework.lib.org.mvel2.templates.util.io.StringAppenderStream;
 import net.simpleframework.lib.org.mvel2.templates.util.io.StringBuilderStream;
+import net.simpleframework.lib.org.mvel2.templates.util.io.Utf8OutputStream;
 import net.simpleframework.lib.org.mvel2.util.ExecutionStack;
 import net.simpleframework.lib.org.mvel2.util.StringAppender;
 
@@ -176,6 +177,57 @@ public class TemplateRuntime {
 		execute(compileTemplate(template), ctx, vars, registry, stream);
 	}
 
+	private static volatile CachingTemplateRegistry templateCache = new CachingTemplateRegistry();
+
+	/**
+	 * The cache used by the evalCached methods.
+	 */
+	public static CachingTemplateRegistry getTemplateCache() {
+		return templateCache;
+	}
+
+	public static void setTemplateCache(final CachingTemplateRegistry cache) {
+		templateCache = cache;
+	}
+
+	/**
+	 * Same as {@link #eval(String, Object, Map)}, but the template is compiled
+	 * once and kept in the {@link #getTemplateCache() template cache}.
+	 */
+	public static Object evalCached(final String template, final Object ctx, final Map vars) {
+		return execute(templateCache.getTemplate(template), ctx, new MapVariableResolverFactory(vars));
+	}
+
+	public static Object evalCached(final String template, final Object ctx,
+			final VariableResolverFactory vars, final TemplateRegistry registry) {
+		return execute(templateCache.getTemplate(template), ctx, vars, registry);
+	}
+
+	public static void evalCached(final String template, final Object ctx,
+			final VariableResolverFactory vars, final TemplateRegistry registry,
+			final TemplateOutputStream stream) {
+		execute(templateCache.getTemplate(template), ctx, vars, registry, stream);
+	}
+
+	/**
+	 * Same as {@link #eval(File, Object, VariableResolverFactory, TemplateRegistry)}
+	 * , but the compiled template is cached and recompiled when the file changes.
+	 */
+	public static Object evalCached(final File file, final Object ctx, final Map vars) {
+		return execute(templateCache.getTemplate(file), ctx, new MapVariableResolverFactory(vars));
+	}
+
+	public static Object evalCached(final File file, final Object ctx,
+			final VariableResolverFactory vars, final TemplateRegistry registry) {
+		return execute(templateCache.getTemplate(file), ctx, vars, registry);
+	}
+
+	public static void evalCached(final File file, final Object ctx,
+			final VariableResolverFactory vars, final TemplateRegistry registry,
+			final TemplateOutputStream stream) {
+		execute(templateCache.getTemplate(file), ctx, vars, registry, stream);
+	}
+
 	public static Object execute(final CompiledTemplate compiled) {
 		return execute(compiled.getRoot(), compiled.getTemplate(), new StringAppender(), null,
 				new ImmutableDefaultFactory(), null);
@@ -301,6 +353,24 @@ public class TemplateRuntime {
 				registry, basedir);
 	}
 
+	/**
+	 * Renders the template to the stream as UTF-8. Static text is written as
+	 * bytes encoded once, only the values of expressions are encoded on each
+	 * render.
+	 */
+	public static void executeUtf8(final CompiledTemplate compiled, final Object context,
+			final Map vars, final OutputStream stream) {
+		executeUtf8(compiled, context, new MapVariableResolverFactory(vars), null, stream);
+	}
+
+	public static void executeUtf8(final CompiledTemplate compiled, final Object context,
+			final VariableResolverFactory factory, final TemplateRegistry registry,
+			final OutputStream stream) {
+		final Utf8OutputStream out = new Utf8OutputStream(stream);
+		execute(compiled.getRoot(), compiled.getTemplate(), out, context, factory, registry);
+		out.flush();
+	}
+
 	public static Object execute(final Node root, final char[] template,
 			final StringAppender appender, final Object context,
 			final VariableResolverFactory factory, final TemplateRegistry registry) {
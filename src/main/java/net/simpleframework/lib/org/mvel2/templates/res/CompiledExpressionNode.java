@@ -42,6 +42,10 @@ public class CompiledExpressionNode extends ExpressionNode {
 		ce = MVEL.compileExpression(template, cStart, cEnd - cStart, context);
 	}
 
+	public Serializable getCompiledExpression() {
+		return ce;
+	}
+
 	@Override
 	public Object eval(final TemplateRuntime runtime, final TemplateOutputStream appender,
 			final Object ctx, final VariableResolverFactory factory) {
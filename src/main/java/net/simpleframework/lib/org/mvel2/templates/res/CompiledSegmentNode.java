@@ -0,0 +1,68 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.templates.res;
+
+import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
+import net.simpleframework.lib.org.mvel2.templates.TemplateRenderer;
+import net.simpleframework.lib.org.mvel2.templates.TemplateRuntime;
+import net.simpleframework.lib.org.mvel2.templates.util.TemplateOutputStream;
+
+/**
+ * Replaces a run of text and expression nodes, the run is rendered by a
+ * generated {@link TemplateRenderer}.
+ * <p/>
+ * The generated class can not be serialized: the node is written as the run
+ * of nodes it replaces, so a deserialized template is interpreted again and
+ * can be passed to TemplateClassCompiler once more.
+ */
+public class CompiledSegmentNode extends ExpressionNode {
+	private final transient TemplateRenderer renderer;
+	private final int segment;
+
+	/**
+	 * first node of the replaced run, its chain renders the same output
+	 */
+	private final Node source;
+
+	public CompiledSegmentNode(final TemplateRenderer renderer, final int segment,
+			final Node source, final Node next) {
+		this.renderer = renderer;
+		this.segment = segment;
+		this.source = source;
+		this.next = next;
+	}
+
+	@Override
+	public Object eval(final TemplateRuntime runtime, final TemplateOutputStream appender,
+			final Object ctx, final VariableResolverFactory factory) {
+		renderer.render(segment, appender, ctx, factory);
+		return next != null ? next.eval(runtime, appender, ctx, factory) : null;
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledSegmentNode(" + segment + ")";
+	}
+
+	private Object writeReplace() {
+		return source;
+	}
+
+	private static final long serialVersionUID = -2969557129428405722L;
+}
@@ -18,11 +18,21 @@
 
 package net.simpleframework.lib.org.mvel2.templates.res;
 
+import java.nio.charset.Charset;
+
 import net.simpleframework.lib.org.mvel2.integration.VariableResolverFactory;
 import net.simpleframework.lib.org.mvel2.templates.TemplateRuntime;
+import net.simpleframework.lib.org.mvel2.templates.util.TemplateByteOutputStream;
 import net.simpleframework.lib.org.mvel2.templates.util.TemplateOutputStream;
 
 public class TextNode extends Node {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * the text encoded as UTF-8, for byte output streams
+	 */
+	private transient volatile byte[] utf8;
+
 	public TextNode(final int begin, final int end) {
 		this.begin = begin;
 		this.end = end;
@@ -39,7 +49,15 @@ public class TextNode extends Node {
 			final Object ctx, final VariableResolverFactory factory) {
 		final int len = end - begin;
 		if (len != 0) {
-			appender.append(new String(runtime.getTemplate(), begin, len));
+			if (appender instanceof TemplateByteOutputStream) {
+				byte[] b = utf8;
+				if (b == null) {
+					utf8 = b = new String(runtime.getTemplate(), begin, len).getBytes(UTF8);
+				}
+				((TemplateByteOutputStream) appender).write(b, 0, b.length);
+			} else {
+				appender.append(new String(runtime.getTemplate(), begin, len));
+			}
 		}
 		return next != null ? next.eval(runtime, appender, ctx, factory) : null;
 	}
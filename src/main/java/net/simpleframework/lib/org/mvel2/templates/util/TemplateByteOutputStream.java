@@ -0,0 +1,27 @@
+package net.simpleframework.lib.org.mvel2.templates.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A TemplateOutputStream producing UTF-8 bytes. Static template text is
+ * encoded once and written with the write methods; only the dynamic values go
+ * through append and are encoded on each render.
+ */
+public interface TemplateByteOutputStream extends TemplateOutputStream {
+	@Override
+	public TemplateByteOutputStream append(CharSequence c);
+
+	@Override
+	public TemplateByteOutputStream append(char[] c);
+
+	/**
+	 * Writes UTF-8 encoded bytes, the array may be shared and is not modified.
+	 */
+	public TemplateByteOutputStream write(byte[] b, int off, int len);
+
+	/**
+	 * Writes the remaining UTF-8 encoded bytes of the buffer, its position is
+	 * not changed.
+	 */
+	public TemplateByteOutputStream write(ByteBuffer b);
+}
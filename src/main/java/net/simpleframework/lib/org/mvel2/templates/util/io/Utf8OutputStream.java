@@ -0,0 +1,159 @@
+package net.simpleframework.lib.org.mvel2.templates.util.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import net.simpleframework.lib.org.mvel2.templates.util.TemplateByteOutputStream;
+
+/**
+ * Writes the template output to an OutputStream as UTF-8. Characters are
+ * encoded into an internal buffer; large pre-encoded byte slices bypass the
+ * buffer and are written to the stream directly. Call {@link #flush()} once
+ * the template has been rendered.
+ */
+public class Utf8OutputStream implements TemplateByteOutputStream {
+	private final OutputStream outputStream;
+
+	private final byte[] buf;
+
+	private int count;
+
+	public Utf8OutputStream(final OutputStream outputStream, final int bufferSize) {
+		this.outputStream = outputStream;
+		this.buf = new byte[Math.max(bufferSize, 16)];
+	}
+
+	public Utf8OutputStream(final OutputStream outputStream) {
+		this(outputStream, 8192);
+	}
+
+	@Override
+	public TemplateByteOutputStream append(final CharSequence c) {
+		final int len = c.length();
+		for (int i = 0; i < len; i++) {
+			final char ch = c.charAt(i);
+			if (ch < 0x80) {
+				if (count == buf.length) {
+					flushBuffer();
+				}
+				buf[count++] = (byte) ch;
+			} else if (Character.isHighSurrogate(ch) && i + 1 < len
+					&& Character.isLowSurrogate(c.charAt(i + 1))) {
+				encode(Character.toCodePoint(ch, c.charAt(++i)));
+			} else {
+				encode(ch);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public TemplateByteOutputStream append(final char[] c) {
+		final int len = c.length;
+		for (int i = 0; i < len; i++) {
+			final char ch = c[i];
+			if (ch < 0x80) {
+				if (count == buf.length) {
+					flushBuffer();
+				}
+				buf[count++] = (byte) ch;
+			} else if (Character.isHighSurrogate(ch) && i + 1 < len
+					&& Character.isLowSurrogate(c[i + 1])) {
+				encode(Character.toCodePoint(ch, c[++i]));
+			} else {
+				encode(ch);
+			}
+		}
+		return this;
+	}
+
+	private void encode(final int cp) {
+		if (buf.length - count < 4) {
+			flushBuffer();
+		}
+		if (cp < 0x800) {
+			buf[count++] = (byte) (0xc0 | (cp >> 6));
+		} else if (cp < 0x10000) {
+			if (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE) {
+				// unpaired surrogate, same replacement as String.getBytes
+				buf[count++] = '?';
+				return;
+			}
+			buf[count++] = (byte) (0xe0 | (cp >> 12));
+			buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+		} else {
+			buf[count++] = (byte) (0xf0 | (cp >> 18));
+			buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+			buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+		}
+		buf[count++] = (byte) (0x80 | (cp & 0x3f));
+	}
+
+	@Override
+	public TemplateByteOutputStream write(final byte[] b, final int off, final int len) {
+		if (len <= buf.length - count) {
+			System.arraycopy(b, off, buf, count, len);
+			count += len;
+			return this;
+		}
+		flushBuffer();
+		if (len >= buf.length >> 1) {
+			// large slices go to the stream without a copy
+			try {
+				outputStream.write(b, off, len);
+			} catch (final IOException e) {
+				throw new RuntimeException("failed to write to stream", e);
+			}
+		} else {
+			System.arraycopy(b, off, buf, 0, len);
+			count = len;
+		}
+		return this;
+	}
+
+	@Override
+	public TemplateByteOutputStream write(final ByteBuffer b) {
+		if (b.hasArray()) {
+			return write(b.array(), b.arrayOffset() + b.position(), b.remaining());
+		}
+		final ByteBuffer src = b.duplicate();
+		while (src.hasRemaining()) {
+			if (count == buf.length) {
+				flushBuffer();
+			}
+			final int n = Math.min(src.remaining(), buf.length - count);
+			src.get(buf, count, n);
+			count += n;
+		}
+		return this;
+	}
+
+	private void flushBuffer() {
+		if (count > 0) {
+			try {
+				outputStream.write(buf, 0, count);
+			} catch (final IOException e) {
+				throw new RuntimeException("failed to write to stream", e);
+			}
+			count = 0;
+		}
+	}
+
+	/**
+	 * Writes the buffered bytes and flushes the underlying stream.
+	 */
+	public void flush() {
+		flushBuffer();
+		try {
+			outputStream.flush();
+		} catch (final IOException e) {
+			throw new RuntimeException("failed to write to stream", e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return null;
+	}
+}
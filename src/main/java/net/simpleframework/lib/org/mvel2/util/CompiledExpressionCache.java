@@ -0,0 +1,241 @@
+/**
+ * MVEL 2.0
+ * Copyright (C) 2007 The Codehaus
+ * Mike Brock, Dhanji Prasanna, John Graham, Mark Proctor
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.simpleframework.lib.org.mvel2.util;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.simpleframework.lib.org.mvel2.MVEL;
+import net.simpleframework.lib.org.mvel2.ParserContext;
+
+/**
+ * A bounded cache of compiled expressions, keyed by the expression text and
+ * the ParserContext instance it is compiled with (null for the default
+ * context).
+ * <p/>
+ * Entries are spread over segments, each one an access ordered LRU map with
+ * its own lock, so lookups from many threads rarely contend. An optional
+ * time-to-live forces expressions to be compiled again once expired.
+ * Compilation happens outside of the segment lock; compiles against the same
+ * ParserContext are serialized on that context, as it is not thread-safe.
+ */
+public class CompiledExpressionCache {
+	private static final int SEGMENTS = 16;
+
+	private final Segment[] segments;
+
+	private final int maxSize;
+
+	private final long timeToLive;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxSize
+	 *           the maximum number of compiled expressions kept
+	 * @param timeToLive
+	 *           milliseconds an entry stays valid after compilation, 0 for
+	 *           no limit
+	 */
+	public CompiledExpressionCache(final int maxSize, final long timeToLive) {
+		this.maxSize = maxSize;
+		this.timeToLive = timeToLive;
+		int n = 1;
+		while (n < SEGMENTS && n << 1 <= maxSize) {
+			n <<= 1;
+		}
+		// the capacities add up to maxSize
+		segments = new Segment[n];
+		for (int i = 0; i < n; i++) {
+			segments[i] = new Segment(Math.max(1, maxSize / n + (i < maxSize % n ? 1 : 0)));
+		}
+	}
+
+	public CompiledExpressionCache(final int maxSize) {
+		this(maxSize, 0);
+	}
+
+	/**
+	 * Returns the compiled form of the expression, compiling and caching it on
+	 * a miss.
+	 */
+	public Serializable get(final String expression, final ParserContext pCtx) {
+		final Key key = new Key(expression, pCtx);
+		final Segment segment = segments[key.hash & (segments.length - 1)];
+		CacheEntry entry;
+		synchronized (segment) {
+			entry = segment.get(key);
+			if (entry != null && timeToLive > 0
+					&& System.currentTimeMillis() - entry.created > timeToLive) {
+				segment.remove(key);
+				evictions.incrementAndGet();
+				entry = null;
+			}
+		}
+		if (entry != null) {
+			hits.incrementAndGet();
+			return entry.compiled;
+		}
+		misses.incrementAndGet();
+		final Serializable compiled;
+		if (pCtx == null) {
+			compiled = MVEL.compileExpression(expression);
+		} else {
+			synchronized (pCtx) {
+				compiled = MVEL.compileExpression(expression, pCtx);
+			}
+		}
+		synchronized (segment) {
+			// another thread may have compiled it in the meantime
+			final CacheEntry current = segment.get(key);
+			if (current != null) {
+				return current.compiled;
+			}
+			segment.put(key, new CacheEntry(compiled));
+		}
+		return compiled;
+	}
+
+	public void remove(final String expression, final ParserContext pCtx) {
+		final Key key = new Key(expression, pCtx);
+		final Segment segment = segments[key.hash & (segments.length - 1)];
+		synchronized (segment) {
+			segment.remove(key);
+		}
+	}
+
+	public void clear() {
+		for (final Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (final Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public long getTimeToLive() {
+		return timeToLive;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return entries dropped because the cache was full or they expired
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledExpressionCache[size=" + size() + ", maxSize=" + maxSize + ", hits="
+				+ getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount()
+				+ "]";
+	}
+
+	private static final class Key {
+		private final String expression;
+
+		private final ParserContext pCtx;
+
+		private final int hash;
+
+		Key(final String expression, final ParserContext pCtx) {
+			this.expression = expression;
+			this.pCtx = pCtx;
+			final int h = expression.hashCode() * 31 + System.identityHashCode(pCtx);
+			this.hash = h ^ (h >>> 16);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key key = (Key) obj;
+			return pCtx == key.pCtx && expression.equals(key.expression);
+		}
+	}
+
+	private static final class CacheEntry {
+		private final Serializable compiled;
+
+		private final long created = System.currentTimeMillis();
+
+		CacheEntry(final Serializable compiled) {
+			this.compiled = compiled;
+		}
+	}
+
+	private class Segment extends LinkedHashMap<Key, CacheEntry> {
+		private final int capacity;
+
+		Segment(final int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Key, CacheEntry> eldest) {
+			if (size() > capacity) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+
+		private static final long serialVersionUID = -4215813472209306461L;
+	}
+}
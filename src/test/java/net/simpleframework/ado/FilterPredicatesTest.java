@@ -0,0 +1,74 @@
+package net.simpleframework.ado;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 编译后的条件与!FilterItem.isDelete一致
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class FilterPredicatesTest {
+
+	public static enum E {
+		A, B, C
+	}
+
+	private static final EFilterRelation[] RELATIONS = new EFilterRelation[] {
+			EFilterRelation.equal, EFilterRelation.not_equal, EFilterRelation.gt,
+			EFilterRelation.gt_equal, EFilterRelation.lt, EFilterRelation.lt_equal,
+			EFilterRelation.like };
+
+	@Test
+	public void testNumberParity() {
+		// 不超过2^53，更大的整数编译后按long精确比较，isDelete按double比较
+		final Object[] bounds = new Object[] { 5, 5l, 5.5d, -5.5d, "5.5", "5", null, 4.0d, "abc" };
+		final Object[] values = new Object[] { 5l, 5, 6l, 4, -6, null, "5", 5.5d, 0.1f,
+				9007199254740992l };
+		for (final Class<?> type : new Class<?>[] { Long.class, Integer.class, Double.class,
+				long.class, int.class }) {
+			final Class<?> propertyType = type == long.class ? Long.class : type == int.class ? Integer.class : type;
+			for (final Object bound : bounds) {
+				for (final EFilterRelation r : RELATIONS) {
+					final FilterItem item = new FilterItem("c", r, bound);
+					final IFilterPredicate predicate = item.compile(type);
+					for (final Object v : values) {
+						assertEquals(type.getSimpleName() + " " + r + " " + bound + " " + v,
+								!item.isDelete(v, propertyType), predicate.accept(v));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNonExactBound() {
+		assertTrue(new FilterItem("c", EFilterRelation.lt, 5.5d).compile(Long.class).accept(5l));
+		assertFalse(new FilterItem("c", EFilterRelation.gt_equal, 5.5d).compile(Long.class)
+				.accept(5l));
+		assertTrue(new FilterItem("c", EFilterRelation.gt, 4.5d).compile(int.class).accept(5));
+		assertFalse(new FilterItem("c", EFilterRelation.equal, 5.5d).compile(Long.class).accept(5l));
+		assertTrue(new FilterItem("c", EFilterRelation.lt, "5.5").compile(Long.class).accept(5l));
+	}
+
+	@Test
+	public void testEnumParity() {
+		for (final EFilterRelation r : new EFilterRelation[] { EFilterRelation.equal,
+				EFilterRelation.not_equal, EFilterRelation.like }) {
+			for (final Object bound : new Object[] { "B", E.B, "b", 1 }) {
+				final FilterItem item = new FilterItem("c", r, bound);
+				final IFilterPredicate predicate = item.compile(E.class);
+				for (final Object v : new Object[] { E.A, E.B, "B", "C", null }) {
+					assertEquals(r + " " + bound + " " + v, !item.isDelete(v, E.class),
+							predicate.accept(v));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package net.simpleframework.ado.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.simpleframework.ado.EFilterRelation;
+import net.simpleframework.ado.FilterItem;
+
+import org.junit.Test;
+
+/**
+ * 建立索引前后查询结果应一致
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class MemoryDataQueryEngineTest {
+
+	public static class Row {
+		private long l;
+
+		private int i;
+
+		private Double d;
+
+		private Float f;
+
+		public Row() {
+		}
+
+		Row(final long v, final Double d) {
+			this.l = v;
+			this.i = (int) v;
+			this.d = d;
+			this.f = d != null ? d.floatValue() : null;
+		}
+
+		public long getL() {
+			return l;
+		}
+
+		public void setL(final long l) {
+			this.l = l;
+		}
+
+		public int getI() {
+			return i;
+		}
+
+		public void setI(final int i) {
+			this.i = i;
+		}
+
+		public Double getD() {
+			return d;
+		}
+
+		public void setD(final Double d) {
+			this.d = d;
+		}
+
+		public Float getF() {
+			return f;
+		}
+
+		public void setF(final Float f) {
+			this.f = f;
+		}
+
+		@Override
+		public String toString() {
+			return "R" + l;
+		}
+	}
+
+	private static final EFilterRelation[] RANGES = new EFilterRelation[] { EFilterRelation.gt,
+			EFilterRelation.gt_equal, EFilterRelation.lt, EFilterRelation.lt_equal };
+
+	private static final Object[] VALUES = new Object[] { 5.5d, -5.5d, 5.0d, 5, 5l, 0.1d, 0.1f,
+			"5.5", "5", 0, -0.0d, 100, -100, Long.MAX_VALUE, Double.NaN, null };
+
+	private static List<Row> rows() {
+		final List<Row> rows = new ArrayList<Row>();
+		for (long v = -8; v <= 8; v++) {
+			rows.add(new Row(v, v / 2d));
+		}
+		rows.add(new Row(9, 0.1d));
+		rows.add(new Row(10, -0.0d));
+		rows.add(new Row(11, Double.NaN));
+		rows.add(new Row(12, null));
+		return rows;
+	}
+
+	@Test
+	public void testSortedIndexParity() {
+		final List<Row> rows = rows();
+		for (final String column : new String[] { "l", "i", "d", "f" }) {
+			final MemoryDataQueryEngine<Row> plain = new MemoryDataQueryEngine<Row>(rows);
+			final MemoryDataQueryEngine<Row> indexed = new MemoryDataQueryEngine<Row>(rows)
+					.addSortedIndex(column);
+			for (final EFilterRelation r : RANGES) {
+				for (final Object value : VALUES) {
+					final List<FilterItem> items = Arrays.asList(new FilterItem(column, r, value));
+					assertEquals(column + " " + r + " " + value, plain.list(items), indexed.list(items));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNonExactBound() {
+		final List<Row> rows = rows();
+		for (final String column : new String[] { "l", "i" }) {
+			// -8..5
+			final List<FilterItem> items = Arrays.asList(new FilterItem(column, EFilterRelation.lt,
+					5.5d));
+			final List<Row> expected = rows.subList(0, 14);
+			assertEquals(expected, new MemoryDataQueryEngine<Row>(rows).list(items));
+			assertEquals(expected,
+					new MemoryDataQueryEngine<Row>(rows).addSortedIndex(column).list(items));
+		}
+	}
+
+	@Test
+	public void testHashIndexParity() {
+		final List<Row> rows = rows();
+		for (final String column : new String[] { "l", "i", "d" }) {
+			final MemoryDataQueryEngine<Row> plain = new MemoryDataQueryEngine<Row>(rows);
+			final MemoryDataQueryEngine<Row> indexed = new MemoryDataQueryEngine<Row>(rows)
+					.addHashIndex(column);
+			for (final Object value : VALUES) {
+				final List<FilterItem> items = Arrays.asList(new FilterItem(column,
+						EFilterRelation.equal, value));
+				assertEquals(column + " equal " + value, plain.list(items), indexed.list(items));
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package net.simpleframework.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import net.simpleframework.common.Convert.IConverter;
+
+import org.junit.Test;
+
+/**
+ * 转换失败时返回调用者的默认值
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class ConvertTest {
+
+	public static enum E {
+		A, B, C
+	}
+
+	@Test
+	public void testEnumDefault() {
+		assertSame(E.B, Convert.convert("garbage", E.class, E.B));
+		assertNull(Convert.convert("garbage", E.class));
+		assertSame(E.C, Convert.convert("C", E.class, E.A));
+		assertSame(E.C, Convert.convert("c", E.class, E.A));
+		assertSame(E.B, Convert.convert(1, E.class, E.C));
+		assertSame(E.B, Convert.convert("1", E.class, E.C));
+		assertSame(E.C, Convert.convert(7, E.class, E.C));
+		assertSame(E.A, Convert.convert(-1l, E.class, E.A));
+	}
+
+	@Test
+	public void testNumberDefault() {
+		assertEquals(3, Convert.toInt("abc", 3));
+		assertEquals(5, Convert.toInt(Long.MAX_VALUE, 5));
+		assertEquals(12, Convert.toInt("12", 3));
+		assertEquals(7l, Convert.toLong(null, 7l));
+		assertEquals(1.5d, Convert.toDouble("x", 1.5d), 0d);
+		assertEquals(2.5d, Convert.toDouble("2.5", 1.5d), 0d);
+		assertEquals(false, Convert.toBool("no", true));
+	}
+
+	@Test
+	public void testSqlDate() {
+		final Timestamp ts = new Timestamp(1234567890123l);
+		final Date d = Convert.convert(ts, Date.class);
+		assertEquals(Date.class, d.getClass());
+		assertEquals(ts.getTime(), d.getTime());
+		final Date d2 = Convert.convert(new java.sql.Date(1234567890123l), Date.class);
+		assertEquals(Date.class, d2.getClass());
+		assertEquals(1234567890123l, d2.getTime());
+	}
+
+	@Test
+	public void testRegist() {
+		final StringBuilder sb = new StringBuilder("x");
+		assertNull(Convert.convert(sb, E.class));
+		Convert.regist(StringBuilder.class, E.class, new IConverter() {
+			@Override
+			public Object convert(final Object value) {
+				return E.C;
+			}
+		});
+		assertSame(E.C, Convert.convert(sb, E.class));
+	}
+}
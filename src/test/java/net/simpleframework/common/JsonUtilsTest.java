@@ -0,0 +1,43 @@
+package net.simpleframework.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.UnsupportedEncodingException;
+
+import org.junit.Test;
+
+/**
+ * byte[]与String解析结果应一致
+ *
+ * Licensed under the Apache License, Version 2.0
+ *
+ * @author 陈侃(cknet@126.com, 13910090885) https://github.com/simpleframework
+ *         http://www.simpleframework.net
+ */
+public class JsonUtilsTest {
+
+	private static byte[] utf8(final String s) throws UnsupportedEncodingException {
+		return s.getBytes("UTF-8");
+	}
+
+	@Test
+	public void testMapParity() throws UnsupportedEncodingException {
+		final String[] jsons = new String[] { "{\"k\":\"中文😀é\",\"n\":12.5,\"a\":[1,2,\"x\"]}",
+				"{\"k\":\"a\\\"中😀\"}", "{\"k\":  中文 }", "{k:中文}", "{中文:1}", "{\"k\":'中文'}",
+				"{\"k\":中}", "{\"k\":é}", "{\"k\":😀x}", "{😀:é😀}", "{\"k\":12中文}", "{\"k\":1.5é}",
+				"{\"k\":-3e2中}", "{中: 文 , é:1}" };
+		for (final String json : jsons) {
+			assertEquals(json, JsonUtils.toMap(json), JsonUtils.toMap(utf8(json)));
+		}
+		assertEquals("中文", JsonUtils.toMap(utf8("{\"k\":中文}")).get("k"));
+		assertEquals(1, JsonUtils.toMap(utf8("{中文:1}")).get("中文"));
+	}
+
+	@Test
+	public void testListParity() throws UnsupportedEncodingException {
+		final String[] jsons = new String[] { "[中文, é]", "[😀, 1, \"中\", 中文😀 ]", "[1中, 2.5é]" };
+		for (final String json : jsons) {
+			assertEquals(json, JsonUtils.toList(json, null), JsonUtils.toList(utf8(json), null));
+		}
+	}
+}